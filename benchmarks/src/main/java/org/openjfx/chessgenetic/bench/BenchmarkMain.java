@@ -0,0 +1,25 @@
+package org.openjfx.chessgenetic.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the main class of benchmarks.jar: it runs JMH with the GC profiler on by default,
+ * so every result comes with its allocation rate (gc.alloc.rate.norm is the bytes allocated per operation).
+ * Every JMH option still works, e.g. {@code java -jar benchmarks.jar Fitness -p populationSize=1000 -rf json}.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-prof")) {
+            options.add("-prof");
+            options.add("gc");
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
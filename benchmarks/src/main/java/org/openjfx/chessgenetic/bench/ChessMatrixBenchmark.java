@@ -0,0 +1,72 @@
+package org.openjfx.chessgenetic.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.chessgenetic.ChessMatrix;
+import org.openjfx.chessgenetic.FitnessFunction;
+import org.openjfx.chessgenetic.Pieces;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates, mutates and rescores single boards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessMatrixBenchmark {
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private ChessMatrix board;
+
+    private final long[] masks = new long[Pieces.KNIGHT + 1];
+
+    @Setup
+    public void setup() {
+        board = new ChessMatrix(FitnessFunction.DEFAULT, random);
+        for (int kind = Pieces.QUEEN; kind <= Pieces.KNIGHT; kind++) {
+            masks[kind] = board.getKindMask(kind);
+        }
+    }
+
+    @Benchmark
+    public ChessMatrix construct() {
+        return new ChessMatrix(FitnessFunction.DEFAULT, random);
+    }
+
+    @Benchmark
+    public ChessMatrix constructFromGenome() {
+        return new ChessMatrix(board.getGenome(), FitnessFunction.DEFAULT);
+    }
+
+    /** One mutation attempt (10% of them swap two squares) */
+    @Benchmark
+    public int mutate() {
+        board.mutate(random);
+        return board.getConflicts();
+    }
+
+    /** One swap applied to the board and rescored incrementally */
+    @Benchmark
+    public int swapAndRescore() {
+        int half = random.nextBoolean() ? 0 : 32;
+        board.swapAndRescore(half + random.nextInt(32), half + random.nextInt(32));
+        return board.getConflicts();
+    }
+
+    /** The conflict delta of one swap, the board is left as it is */
+    @Benchmark
+    public int swapDelta() {
+        int half = random.nextBoolean() ? 0 : 32;
+        return FitnessFunction.DEFAULT.swapDelta(board.getOccupancy(), masks, half + random.nextInt(32), half + random.nextInt(32));
+    }
+
+    /** A full rescore of the same board, what a swap cost before the delta evaluation */
+    @Benchmark
+    public int fullRescore() {
+        return FitnessFunction.DEFAULT.conflicts(board.getOccupancy(), masks);
+    }
+}
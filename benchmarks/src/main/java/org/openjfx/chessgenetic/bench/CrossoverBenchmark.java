@@ -0,0 +1,54 @@
+package org.openjfx.chessgenetic.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.chessgenetic.ChessMatrix;
+import org.openjfx.chessgenetic.CrossoverOperator;
+import org.openjfx.chessgenetic.CrossoverType;
+import org.openjfx.chessgenetic.FitnessFunction;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crosses pairs of parents with every crossover operator, on preallocated genome arrays
+ * (the operator alone: no selection, no mutation, no scoring).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CrossoverBenchmark {
+
+    private static final int PARENTS = 1024;    // Random boards crossed in turn, so the branches are not all predicted
+
+    @Param({"HALF_SWAP", "PMX", "ORDER", "CYCLE", "UNIFORM_SWAP"})
+    public CrossoverType crossoverType;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private CrossoverOperator operator;
+    private byte[] parents;
+    private byte[] children;
+    private int next;                           // The first parent of the next pair
+
+    @Setup
+    public void setup() {
+        operator = crossoverType.create();
+        parents = new byte[PARENTS * 64];
+        children = new byte[2 * 64];
+        for (int i = 0; i < PARENTS; i++) {
+            System.arraycopy(new ChessMatrix(FitnessFunction.DEFAULT, random).getGenome(), 0, parents, i * 64, 64);
+        }
+    }
+
+    /** One pair of parents crossed into two children */
+    @Benchmark
+    public byte[] cross() {
+        int parent1 = next;
+        int parent2 = (next + 1) % PARENTS;
+        next = (next + 2) % PARENTS;
+        operator.cross(parents, parent1 * 64, parent2 * 64, children, 0, 64, random);
+        return children;
+    }
+}
@@ -0,0 +1,69 @@
+package org.openjfx.chessgenetic.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.chessgenetic.ChessMatrix;
+import org.openjfx.chessgenetic.FitnessFunction;
+import org.openjfx.chessgenetic.Pieces;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a whole population, from the bitboards of each ChessMatrix or straight from a contiguous genome array.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FitnessBenchmark {
+
+    public enum Encoding { BITBOARD, GENOME }
+
+    @Param({"1000", "100000"})
+    public int populationSize;
+
+    @Param({"BITBOARD", "GENOME"})
+    public Encoding encoding;
+
+    @Param({"PER_PIECE", "PER_BOARD"})
+    public FitnessFunction.PenaltyMode penaltyMode;
+
+    private FitnessFunction fitnessFunction;
+    private long[] occupancy;
+    private long[][] kindMasks;
+    private byte[] genes;
+    private int start;                          // The first board of the next invocation
+
+    @Setup
+    public void setup() {
+        fitnessFunction = new FitnessFunction(penaltyMode);
+        SplittableRandom random = new SplittableRandom(42);
+        occupancy = new long[populationSize];
+        kindMasks = new long[populationSize][Pieces.KNIGHT + 1];
+        genes = new byte[populationSize * 64];
+        for (int i = 0; i < populationSize; i++) {
+            ChessMatrix board = new ChessMatrix(fitnessFunction, random);
+            occupancy[i] = board.getOccupancy();
+            for (int kind = Pieces.QUEEN; kind <= Pieces.KNIGHT; kind++) {
+                kindMasks[i][kind] = board.getKindMask(kind);
+            }
+            System.arraycopy(board.getGenome(), 0, genes, i * 64, 64);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int scorePopulation() {
+        // Reported per board: 1000 boards per invocation, whatever the population size
+        int total = 0;
+        for (int n = 0, i = start; n < 1000; n++, i = i + 1 == populationSize ? 0 : i + 1) {
+            total += encoding == Encoding.BITBOARD
+                    ? fitnessFunction.conflicts(occupancy[i], kindMasks[i])
+                    : fitnessFunction.conflicts(genes, i * 64);
+        }
+        start = (start + 1000) % populationSize;
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package org.openjfx.chessgenetic.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.chessgenetic.ChessMatrix;
+import org.openjfx.chessgenetic.EvolutionConfig;
+import org.openjfx.chessgenetic.EvolutionEngine;
+import org.openjfx.chessgenetic.FitnessFunction;
+import org.openjfx.chessgenetic.Population;
+import org.openjfx.chessgenetic.SelectionStrategy;
+import org.openjfx.chessgenetic.SelectionType;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the selection strategies alone, and whole generations through the public run() of the engine, on one thread.
+ * initialize() is a seeded run of 0 generations (the random initial population), generations() the same run
+ * for GENERATIONS generations, so one generation costs (generations - initialize) / GENERATIONS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+    private static final int GENERATIONS = 10;
+
+    @Param({"1000", "10000", "100000"})
+    public int populationSize;
+
+    @Param({"ROULETTE", "STOCHASTIC_UNIVERSAL", "TOURNAMENT", "LINEAR_RANK", "TRUNCATION"})
+    public SelectionType selectionType;
+
+    private EvolutionConfig initialization;
+    private EvolutionConfig evolution;
+    private Population population;
+    private int[] selected;
+    private SelectionStrategy strategy;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setup() {
+        initialization = config(0);
+        evolution = config(GENERATIONS);
+        strategy = selectionType.create(evolution);
+
+        population = new Population(populationSize);
+        population.setSize(populationSize);
+        selected = new int[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            population.store(i, new ChessMatrix(FitnessFunction.DEFAULT, random));
+        }
+    }
+
+    private EvolutionConfig config(int generations) {
+        EvolutionConfig config = new EvolutionConfig();
+        config.setPopulationSize(populationSize);
+        config.setMaxGenerations(generations);
+        config.setSelectionType(selectionType);
+        config.setThreads(1);
+        config.setSeed(42);
+        config.setConsoleLogging(false);
+        return config;
+    }
+
+    /** The selection strategy alone, on the fitness array of a population */
+    @Benchmark
+    public int[] select() {
+        strategy.select(population.getFitnessArray(), populationSize, selected, populationSize, random);
+        return selected;
+    }
+
+    /** A run of 0 generations: the random initial population and its best board */
+    @Benchmark
+    public ChessMatrix initialize() {
+        return new EvolutionEngine(initialization).run(null);
+    }
+
+    /** The same run for GENERATIONS generations (selection, crossover, mutation, replacement and best tracking) */
+    @Benchmark
+    public ChessMatrix generations() {
+        return new EvolutionEngine(evolution).run(null);
+    }
+}
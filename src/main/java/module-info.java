@@ -11,6 +11,8 @@ module org.openjfx.chessai {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
     requires java.sql;
+    requires jdk.jfr;
+    requires jdk.management;
     requires annotations;
 
     opens org.openjfx.chessgenetic to javafx.fxml;
@@ -0,0 +1,150 @@
+package org.openjfx.chessgenetic;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * This class is the run lifecycle shared by the {@link EvolutionEngine} and the {@link PlacementEngine}:
+ * the worker threads (created for a run, shut down after it), the chunked execution of a task on them,
+ * the pause lock and the cancel flag, and the console progress lines (see {@link ConsoleLog}).
+ * A subclass only writes its evolution loop, calling {@link #awaitResume()} at the start of every generation.
+ * @param <S> the type of the solutions of the engine
+ */
+abstract class AbstractEngine<S extends Solution> implements Evolution {
+    final int threads;                          // The number of worker threads
+    private ForkJoinPool pool;                  // The worker threads, null when running on one thread
+    final boolean consoleLogging;               // Print the progress on the console
+    final GenerationMetrics metrics = new GenerationMetrics(); // The measures of the run
+    boolean timed;                              // True if the current generation is measured
+
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;            // True while the run is paused
+    volatile boolean cancelled;                 // True once the run has been cancelled
+
+    AbstractEngine(EvolutionConfig config) {
+        config.validate();
+        this.threads = config.getThreads();
+        this.consoleLogging = config.isConsoleLogging();
+    }
+
+    /**
+     * run() method creates the worker threads, runs the evolution loop on the calling thread,
+     * then shuts the workers down and flushes the console
+     * @param listener notified once per generation, may be null
+     * @return the ultimate solution, null if the run was cancelled before it had one
+     */
+    @Override
+    public S run(EvolutionListener listener) {
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            return evolve(listener);
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+                pool = null;
+            }
+            if (consoleLogging) {
+                ConsoleLog.flush();
+            }
+        }
+    }
+
+    /**
+     * evolve() method is the evolution loop of the engine, called by run() with the worker threads ready
+     * @param listener notified once per generation, may be null
+     * @return the ultimate solution, null if the run was cancelled before it had one
+     */
+    abstract S evolve(EvolutionListener listener);
+
+    /**
+     * pause() method suspends the run at the start of the next generation
+     */
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * resume() method wakes a paused run up
+     */
+    @Override
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * cancel() method stops the run at the start of the next generation, even if it is paused
+     */
+    @Override
+    public void cancel() {
+        synchronized (pauseLock) {
+            cancelled = true;
+            pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * awaitResume() method blocks the engine thread while the run is paused
+     * @return false if the run has been cancelled (or the thread interrupted), true otherwise
+     */
+    boolean awaitResume() {
+        synchronized (pauseLock) {
+            while (paused && !cancelled) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+        }
+        return !cancelled;
+    }
+
+    /**
+     * log() method prints a progress line on the console (Debugging), if console logging is on
+     * @param message the line
+     */
+    void log(String message) {
+        if (consoleLogging) {
+            ConsoleLog.println(message);
+        }
+    }
+
+    /**
+     * forEachChunk() method runs a task for every chunk of items, on the worker threads if there are some
+     * the task must only write to the items of its own chunk
+     * in a measured generation, the bytes allocated by the worker threads are counted
+     * @param items the number of items
+     * @param chunkTask called with every chunk index
+     */
+    void forEachChunk(int items, IntConsumer chunkTask) {
+        int chunks = RandomStreams.chunks(items);
+        if (pool == null || chunks == 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                chunkTask.accept(chunk);
+            }
+        } else {
+            IntConsumer task = !timed ? chunkTask : chunk -> {
+                long allocated = GenerationMetrics.allocatedBytes();
+                chunkTask.accept(chunk);
+                metrics.addAllocated(GenerationMetrics.allocatedBytes() - allocated);
+            };
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(task)).join();
+        }
+    }
+}
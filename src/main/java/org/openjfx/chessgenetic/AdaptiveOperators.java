@@ -0,0 +1,185 @@
+package org.openjfx.chessgenetic;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class adapts the variation operators of an {@link EvolutionEngine} from the feedback of every generation:
+ * - the mutation probability follows the 1/5th success rule: it grows when more than a fifth of the mutations
+ *   lowered the conflicts of a child, and shrinks when fewer did (exploration early, exploitation late)
+ * - the crossover operator of every pair is drawn from an operator mix, a probability matching bandit:
+ *   the reward of an operator is the part of its children that beat both of their parents,
+ *   its quality is a moving average of the rewards, and every operator keeps a minimum share so it can come back
+ * The workers record their counts with record() (any thread), the engine calls adapt() between two generations,
+ * so a seeded run makes the same decisions with any number of threads.
+ * The state left by adapt() is saved in the {@link Checkpoint}s (save() and load()), so a resumed run adapts as before.
+ * @see <a href="https://en.wikipedia.org/wiki/Evolution_strategy">1/5th success rule</a>
+ */
+public final class AdaptiveOperators {
+    public static final double MIN_MUTATION_PROBABILITY = 0.01;
+    public static final double MAX_MUTATION_PROBABILITY = 1.0;
+    private static final double TARGET_SUCCESS = 0.2;   // The 1/5th of the rule
+    private static final double STEP = 1.22;            // The factor applied to the mutation probability, 1 / 0.82
+    private static final double MIN_SHARE = 0.05;       // The smallest share of an operator in the mix
+    private static final double LEARNING_RATE = 0.3;    // The weight of the last reward in the quality of an operator
+    // The bytes of the saved state: the mutation probability, its success and the quality and share of every operator
+    public static final int STATE_BYTES = (2 + 2 * CrossoverType.values().length) * Double.BYTES;
+
+    private final CrossoverType[] operators = CrossoverType.values(); // The arms of the bandit
+    private final double[] quality;             // The moving average of the rewards of every operator
+    private final double[] share;               // The probability of every operator in the next generation
+    private double mutationProbability;         // The mutation probability of the next generation
+    private double mutationSuccess;             // The part of the mutations that improved a child, last generation
+
+    // The counts of the current generation
+    private final long[] trials;                // The children of every operator
+    private final long[] successes;             // The children of every operator that beat both parents
+    private long mutations;                     // The children mutated
+    private long improvingMutations;            // The mutations that lowered the conflicts
+
+    public AdaptiveOperators(double mutationProbability) {
+        this.mutationProbability = Math.max(MIN_MUTATION_PROBABILITY, Math.min(MAX_MUTATION_PROBABILITY, mutationProbability));
+        quality = new double[operators.length];
+        share = new double[operators.length];
+        trials = new long[operators.length];
+        successes = new long[operators.length];
+        Arrays.fill(quality, 1.0);
+        Arrays.fill(share, 1.0 / operators.length);
+    }
+
+    /**
+     * pick() method draws the crossover operator of a pair from the operator mix
+     * the mix only changes in adapt(), so the workers may call it while a generation runs
+     * @param random the random generator of the chunk
+     * @return the operator, an index in CrossoverType.values()
+     */
+    public int pick(RandomGenerator random) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < operators.length - 1; i++) {
+            draw -= share[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return operators.length - 1;
+    }
+
+    /**
+     * record() method adds the counts of one chunk of the current generation
+     * @param chunkTrials the children of every operator
+     * @param chunkSuccesses the children of every operator that beat both parents
+     * @param chunkMutations the children mutated
+     * @param chunkImproving the mutations that lowered the conflicts
+     */
+    public synchronized void record(long[] chunkTrials, long[] chunkSuccesses, long chunkMutations, long chunkImproving) {
+        for (int i = 0; i < operators.length; i++) {
+            trials[i] += chunkTrials[i];
+            successes[i] += chunkSuccesses[i];
+        }
+        mutations += chunkMutations;
+        improvingMutations += chunkImproving;
+    }
+
+    /**
+     * adapt() method turns the counts of the generation into the decisions of the next one
+     * Steps:
+     * 1- Apply the 1/5th success rule to the mutation probability
+     * 2- Update the quality of every operator that was used
+     * 3- Share the operator mix in proportion to the qualities, above the minimum share
+     * 4- Reset the counts
+     */
+    public synchronized void adapt() {
+        // 1- Apply the 1/5th success rule to the mutation probability
+        if (mutations > 0) {
+            mutationSuccess = (double) improvingMutations / mutations;
+            if (mutationSuccess > TARGET_SUCCESS) {
+                mutationProbability = Math.min(MAX_MUTATION_PROBABILITY, mutationProbability * STEP);
+            } else if (mutationSuccess < TARGET_SUCCESS) {
+                mutationProbability = Math.max(MIN_MUTATION_PROBABILITY, mutationProbability / STEP);
+            }
+        }
+
+        // 2- Update the quality of every operator that was used
+        double total = 0;
+        for (int i = 0; i < operators.length; i++) {
+            if (trials[i] > 0) {
+                quality[i] += LEARNING_RATE * ((double) successes[i] / trials[i] - quality[i]);
+            }
+            total += quality[i];
+        }
+
+        // 3- Share the operator mix in proportion to the qualities, above the minimum share
+        for (int i = 0; i < operators.length; i++) {
+            double proportion = total > 0 ? quality[i] / total : 1.0 / operators.length;
+            share[i] = MIN_SHARE + (1 - operators.length * MIN_SHARE) * proportion;
+        }
+
+        // 4- Reset the counts
+        Arrays.fill(trials, 0);
+        Arrays.fill(successes, 0);
+        mutations = 0;
+        improvingMutations = 0;
+    }
+
+    /**
+     * save() method writes the state left by adapt(), STATE_BYTES bytes
+     * @param out where it is written
+     */
+    public synchronized void save(ByteBuffer out) {
+        out.putDouble(mutationProbability).putDouble(mutationSuccess);
+        for (int i = 0; i < operators.length; i++) {
+            out.putDouble(quality[i]).putDouble(share[i]);
+        }
+    }
+
+    /**
+     * load() method reads a state written by save(), between two generations
+     * @param in the STATE_BYTES bytes
+     * @throws IllegalArgumentException if the mutation probability or a share is out of its range
+     */
+    public synchronized void load(ByteBuffer in) {
+        double probability = in.getDouble();
+        if (!(probability >= MIN_MUTATION_PROBABILITY && probability <= MAX_MUTATION_PROBABILITY)) {
+            throw new IllegalArgumentException("Invalid mutation probability " + probability);
+        }
+        mutationProbability = probability;
+        mutationSuccess = in.getDouble();
+        for (int i = 0; i < operators.length; i++) {
+            quality[i] = in.getDouble();
+            share[i] = in.getDouble();
+            if (!(share[i] >= 0 && share[i] <= 1)) {
+                throw new IllegalArgumentException("Invalid share " + share[i] + " of " + operators[i]);
+            }
+        }
+    }
+
+    /**
+     * getters
+     */
+
+    public synchronized double getMutationProbability() {
+        return mutationProbability;
+    }
+
+    /**
+     * getMutationSuccess() method returns the part of the mutations of the last generation that lowered the conflicts
+     * @return the success rate, 0 before the first mutation
+     */
+    public synchronized double getMutationSuccess() {
+        return mutationSuccess;
+    }
+
+    /**
+     * getShare() method returns the probability of an operator in the operator mix of the next generation
+     * @param type the operator
+     * @return its share, in [MIN_SHARE, 1]
+     */
+    public synchronized double getShare(CrossoverType type) {
+        return share[type.ordinal()];
+    }
+
+    public CrossoverType[] getOperators() {
+        return operators.clone();
+    }
+}
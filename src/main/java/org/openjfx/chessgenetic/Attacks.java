@@ -0,0 +1,91 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class holds the precomputed attack masks of the 8x8 board.
+ * A square is {@code row * 8 + col} (the genome index), bit {@code square} of a mask is set if the square is in it.
+ * Rays do not include their origin and stop at the edge of the board.
+ */
+public final class Attacks {
+    public static final int BOARD_SIZE = 8;
+    public static final int SQUARES = BOARD_SIZE * BOARD_SIZE;
+
+    /** The 8 ray directions {row, col}: 0-3 are the straight lines, 4-7 the diagonals */
+    public static final int[][] DIRECTIONS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},
+            {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+    public static final int FIRST_STRAIGHT = 0;
+    public static final int FIRST_DIAGONAL = 4;
+
+    /** RAYS[direction][square] every square on the ray from square */
+    public static final long[][] RAYS = new long[DIRECTIONS.length][SQUARES];
+    public static final long[] KNIGHT = new long[SQUARES];
+    public static final long[] ROOK = new long[SQUARES];
+    public static final long[] BISHOP = new long[SQUARES];
+    public static final long[] QUEEN = new long[SQUARES];
+    public static final long[] ROWS = new long[BOARD_SIZE];
+    public static final long[] COLUMNS = new long[BOARD_SIZE];
+
+    private static final int[][] KNIGHT_MOVES = {
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+            {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+
+    static {
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                int square = square(row, col);
+                ROWS[row] |= 1L << square;
+                COLUMNS[col] |= 1L << square;
+
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    int r = row + DIRECTIONS[d][0];
+                    int c = col + DIRECTIONS[d][1];
+                    while (isValidPosition(r, c)) {
+                        RAYS[d][square] |= 1L << square(r, c);
+                        r += DIRECTIONS[d][0];
+                        c += DIRECTIONS[d][1];
+                    }
+                    if (d < FIRST_DIAGONAL) {
+                        ROOK[square] |= RAYS[d][square];
+                    } else {
+                        BISHOP[square] |= RAYS[d][square];
+                    }
+                }
+                QUEEN[square] = ROOK[square] | BISHOP[square];
+
+                for (int[] move : KNIGHT_MOVES) {
+                    if (isValidPosition(row + move[0], col + move[1])) {
+                        KNIGHT[square] |= 1L << square(row + move[0], col + move[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    public static int square(int row, int col) {
+        return row * BOARD_SIZE + col;
+    }
+
+    public static boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE;
+    }
+
+    /**
+     * nearest() method finds the first occupied square along a ray
+     * @param direction the ray direction (index in DIRECTIONS)
+     * @param blockers the occupied squares on the ray (RAYS[direction][square] & occupancy), must not be 0
+     * @return the square of the first blocker
+     */
+    public static int nearest(int direction, long blockers) {
+        // Rays going down or right walk up the square indexes, the others walk down
+        int[] step = DIRECTIONS[direction];
+        if (step[0] > 0 || (step[0] == 0 && step[1] > 0)) {
+            return Long.numberOfTrailingZeros(blockers);
+        }
+        return 63 - Long.numberOfLeadingZeros(blockers);
+    }
+}
@@ -0,0 +1,68 @@
+package org.openjfx.chessgenetic;
+
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+
+/**
+ * This class draws boards on the 64 squares of the chess board view.
+ * Every square gets one image view (and one text label, used when the image of a piece is missing) once,
+ * then a board only changes the squares whose piece differs from the board displayed before,
+ * with the images of {@link PieceSprites}: no node is created and no image is decoded per board.
+ * It must be used on the JavaFX Application Thread.
+ */
+public final class BoardRenderer {
+    private static final double PIECE_SIZE = 48;
+
+    private final ImageView[] images = new ImageView[Attacks.SQUARES]; // The piece image of every square
+    private final Label[] labels = new Label[Attacks.SQUARES];        // The piece text of every square (missing images)
+    private final char[] displayed = new char[Attacks.SQUARES];       // The piece char displayed on every square (0 at first)
+
+    /**
+     * Adds the piece nodes to the squares
+     * @param squares the 64 squares, row by row from the top left one
+     */
+    public BoardRenderer(StackPane[] squares) {
+        if (squares.length != Attacks.SQUARES) {
+            throw new IllegalArgumentException("Expected " + Attacks.SQUARES + " squares, got " + squares.length);
+        }
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            images[square] = new ImageView();
+            images[square].setFitHeight(PIECE_SIZE);
+            images[square].setFitWidth(PIECE_SIZE);
+            images[square].setPreserveRatio(true);
+            labels[square] = new Label();
+            labels[square].getStyleClass().add("chess-piece");
+            labels[square].setVisible(false);
+            squares[square].getChildren().setAll(images[square], labels[square]);
+        }
+    }
+
+    /**
+     * render() method displays a board, only the squares that changed since the last one are touched
+     * @param board the piece chars of the board view ('e' for an empty cell)
+     * @return the number of squares changed
+     */
+    public int render(char[][] board) {
+        int changed = 0;
+        for (int row = 0; row < Attacks.BOARD_SIZE; row++) {
+            for (int col = 0; col < Attacks.BOARD_SIZE; col++) {
+                int square = row * Attacks.BOARD_SIZE + col;
+                char piece = board[row][col];
+                if (piece == displayed[square]) {
+                    continue;
+                }
+                displayed[square] = piece;
+                changed++;
+
+                Image sprite = PieceSprites.get(piece);
+                boolean empty = Pieces.fromChar(piece) == Pieces.EMPTY;
+                images[square].setImage(sprite);
+                labels[square].setText(empty || sprite != null ? "" : String.valueOf(piece));
+                labels[square].setVisible(!empty && sprite == null);
+            }
+        }
+        return changed;
+    }
+}
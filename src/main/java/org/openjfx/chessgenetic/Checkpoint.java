@@ -0,0 +1,217 @@
+package org.openjfx.chessgenetic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class is the binary checkpoint of a run, enough to resume it exactly where it stopped:
+ * <pre>
+ * int magic, int version, long seed, int generation, int population size (of the config), int individuals,
+ * int ultimate conflicts, int last improvement, int stagnation responses,
+ * int adaptive (1 if the run adapts its operators), adaptive operators state, ultimate genome, individuals genomes, long CRC32 of everything before it
+ * </pre>
+ * The adaptive operators state is {@link AdaptiveOperators#STATE_BYTES} long, zeros when the run does not adapt its operators.
+ * The genomes are {@link CompactGenome}s (10 bytes per individual), the conflicts and fitness are recomputed on load.
+ * No random generator state is saved: every generator is derived from (seed, generation, ...) (see {@link RandomStreams}),
+ * so the seed and the generation are the whole random state, and a resumed seeded run is identical to an uninterrupted one.
+ * A checkpoint is read through a memory mapping of the file.
+ * @see CheckpointWriter
+ */
+public final class Checkpoint {
+    private static final int MAGIC = 0x43474b50;    // "CGKP"
+    private static final int VERSION = 3;
+    private static final int HEADER = 2 * Integer.BYTES + Long.BYTES + 7 * Integer.BYTES + AdaptiveOperators.STATE_BYTES;
+
+    private final long seed;                    // The seed of the run
+    private final int generation;               // The next generation to run
+    private final int ultimateConflicts;        // The conflicts of the ultimate solution
+    private final byte[] ultimate;              // The genome of the ultimate solution
+    private final int populationSize;           // The population size of the config
+    private final int individuals;              // The number of individuals saved
+    private final int lastImprovement;          // The generation of the last ultimate improvement (or stagnation response)
+    private final int stagnationResponses;      // The stagnation responses of the run so far
+    private final ByteBuffer genomes;           // The compact genomes of the population
+    private final ByteBuffer operators;         // The adaptive operators state, null if the run does not adapt its operators
+
+    private Checkpoint(long seed, int generation, int ultimateConflicts, byte[] ultimate, int populationSize, int individuals,
+                       int lastImprovement, int stagnationResponses, ByteBuffer genomes, ByteBuffer operators) {
+        this.seed = seed;
+        this.generation = generation;
+        this.ultimateConflicts = ultimateConflicts;
+        this.ultimate = ultimate;
+        this.populationSize = populationSize;
+        this.individuals = individuals;
+        this.lastImprovement = lastImprovement;
+        this.stagnationResponses = stagnationResponses;
+        this.genomes = genomes;
+        this.operators = operators;
+    }
+
+    /**
+     * size() method returns the size of the checkpoint of a population
+     * @param individuals the number of individuals
+     * @return the size in bytes
+     */
+    public static int size(int individuals) {
+        return HEADER + (individuals + 1) * CompactGenome.LENGTH + Long.BYTES;
+    }
+
+    /**
+     * encode() method writes the checkpoint of a run at the start of a generation
+     * @param seed the seed of the run
+     * @param generation the next generation to run
+     * @param populationSize the population size of the config
+     * @param ultimate the ultimate solution
+     * @param population the population the generation starts from
+     * @param lastImprovement the generation of the last ultimate improvement (or stagnation response)
+     * @param stagnationResponses the stagnation responses of the run so far
+     * @param operators the adaptive operators of the run, null if it does not adapt its operators
+     * @param out where it is written, at least size(population.getSize()) bytes left
+     */
+    public static void encode(long seed, int generation, int populationSize, ChessMatrix ultimate, Population population,
+                              int lastImprovement, int stagnationResponses, AdaptiveOperators operators, ByteBuffer out) {
+        int start = out.position();
+        out.putInt(MAGIC).putInt(VERSION).putLong(seed).putInt(generation).putInt(populationSize).putInt(population.getSize())
+                .putInt(ultimate.getConflicts()).putInt(lastImprovement).putInt(stagnationResponses)
+                .putInt(operators != null ? 1 : 0);
+        if (operators != null) {
+            operators.save(out);
+        } else {
+            for (int i = 0; i < AdaptiveOperators.STATE_BYTES; i += Long.BYTES) {
+                out.putLong(0);
+            }
+        }
+        CompactGenome.encode(ultimate.getGenome(), 0, out);
+        for (int i = 0; i < population.getSize(); i++) {
+            CompactGenome.encode(population.getGenomes(), population.offset(i), out);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.duplicate().flip().position(start));
+        out.putLong(crc.getValue());
+    }
+
+    /**
+     * read() method maps a checkpoint file and checks it
+     * @param file the file
+     * @return the checkpoint
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if it is not a valid checkpoint (wrong format, truncated or corrupted)
+     */
+    public static Checkpoint read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < size(0) || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a checkpoint: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a checkpoint (or an unsupported version): " + file);
+        }
+        long seed = buffer.getLong();
+        int generation = buffer.getInt();
+        int populationSize = buffer.getInt();
+        int individuals = buffer.getInt();
+        int ultimateConflicts = buffer.getInt();
+        int lastImprovement = buffer.getInt();
+        int stagnationResponses = buffer.getInt();
+        int adaptive = buffer.getInt();
+        if (generation < 0 || individuals < 0 || individuals > populationSize || buffer.capacity() != size(individuals)) {
+            throw new IllegalArgumentException("Truncated checkpoint: " + file);
+        }
+        if (adaptive != 0 && adaptive != 1 || lastImprovement < 0 || lastImprovement > generation || stagnationResponses < 0) {
+            throw new IllegalArgumentException("Not a checkpoint: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, buffer.capacity() - Long.BYTES));
+        if (crc.getValue() != buffer.getLong(buffer.capacity() - Long.BYTES)) {
+            throw new IllegalArgumentException("Corrupted checkpoint: " + file);
+        }
+
+        ByteBuffer operators = adaptive == 1 ? buffer.slice(buffer.position(), AdaptiveOperators.STATE_BYTES) : null;
+        buffer.position(buffer.position() + AdaptiveOperators.STATE_BYTES);
+        byte[] ultimate = new byte[Population.GENOME_LENGTH];
+        CompactGenome.decode(buffer, ultimate, 0);
+        ByteBuffer genomes = buffer.slice(buffer.position(), individuals * CompactGenome.LENGTH);
+        return new Checkpoint(seed, generation, ultimateConflicts, ultimate, populationSize, individuals, lastImprovement,
+                stagnationResponses, genomes, operators);
+    }
+
+    /**
+     * restore() method loads the saved individuals into a population, in the same order, and rescores them
+     * @param population the population, with a capacity of at least getIndividuals()
+     * @param cursor the board used to score the individuals
+     */
+    public void restore(Population population, ChessMatrix cursor) {
+        population.setSize(individuals);
+        ByteBuffer in = genomes.duplicate();
+        for (int i = 0; i < individuals; i++) {
+            CompactGenome.decode(in, population.getGenomes(), population.offset(i));
+            population.load(i, cursor);
+            population.store(i, cursor);
+        }
+    }
+
+    /**
+     * restore() method loads the saved adaptive operators state
+     * @param adaptiveOperators the adaptive operators of the resumed run
+     * @throws IllegalArgumentException if the checkpoint has no adaptive operators state
+     */
+    public void restore(AdaptiveOperators adaptiveOperators) {
+        if (operators == null) {
+            throw new IllegalArgumentException("The checkpoint has no adaptive operators state");
+        }
+        adaptiveOperators.load(operators.duplicate());
+    }
+
+    /**
+     * getters
+     */
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public int getIndividuals() {
+        return individuals;
+    }
+
+    public int getUltimateConflicts() {
+        return ultimateConflicts;
+    }
+
+    public int getLastImprovement() {
+        return lastImprovement;
+    }
+
+    public int getStagnationResponses() {
+        return stagnationResponses;
+    }
+
+    public boolean hasAdaptiveOperators() {
+        return operators != null;
+    }
+
+    /**
+     * getUltimate() method builds the ultimate solution saved in the checkpoint
+     * @param fitnessFunction the fitness function of the board
+     * @return the board
+     */
+    public ChessMatrix getUltimate(FitnessFunction fitnessFunction) {
+        return new ChessMatrix(ultimate.clone(), fitnessFunction);
+    }
+}
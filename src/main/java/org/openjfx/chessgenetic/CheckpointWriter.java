@@ -0,0 +1,140 @@
+package org.openjfx.chessgenetic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class writes the {@link Checkpoint}s of a run on a background thread, so the engine never waits for the disk:
+ * the engine thread only encodes the population into a reused buffer (10 bytes per individual),
+ * the writer thread writes it to a temporary file with a FileChannel, forces it to the disk
+ * and moves it over the checkpoint file, so the file is always a complete checkpoint, even if the process dies.
+ * If the previous checkpoint is still being written, a periodic checkpoint is skipped.
+ */
+final class CheckpointWriter implements Closeable {
+    private final Path file;                    // The checkpoint file
+    private final Path temporary;               // Written first, then moved over the file
+    private final ExecutorService writer;       // The writer thread
+    private ByteBuffer buffer;                  // The checkpoint being written, reused
+    private Future<?> pending;                  // The write in progress, null if none
+    private int written;                        // The checkpoints written so far
+    private int skipped;                        // The checkpoints skipped because the disk was busy
+
+    CheckpointWriter(Path file) {
+        this.file = file;
+        this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * write() method saves a checkpoint, called on the engine thread
+     * @param seed the seed of the run
+     * @param generation the next generation to run
+     * @param populationSize the population size of the config
+     * @param ultimate the ultimate solution
+     * @param population the population the generation starts from
+     * @param lastImprovement the generation of the last ultimate improvement (or stagnation response)
+     * @param stagnationResponses the stagnation responses of the run so far
+     * @param operators the adaptive operators of the run, null if it does not adapt its operators
+     * @param wait wait for the previous checkpoint instead of skipping this one (the last checkpoint of a run)
+     * @return false if the checkpoint has been skipped
+     */
+    boolean write(long seed, int generation, int populationSize, ChessMatrix ultimate, Population population,
+                  int lastImprovement, int stagnationResponses, AdaptiveOperators operators, boolean wait) {
+        if (pending != null && !pending.isDone()) {
+            if (!wait) {
+                skipped++;
+                return false;
+            }
+            await();
+        }
+
+        int size = Checkpoint.size(population.getSize());
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+        buffer.clear();
+        Checkpoint.encode(seed, generation, populationSize, ultimate, population, lastImprovement,
+                stagnationResponses, operators, buffer);
+        buffer.flip();
+        pending = writer.submit(this::writeBuffer);
+        written++;
+        return true;
+    }
+
+    /**
+     * writeBuffer() method is the task of the writer thread
+     */
+    private void writeBuffer() {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Checkpoint not written: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Checkpoint not moved to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * await() method waits for the checkpoint being written, even if the engine thread is interrupted:
+     * the writer thread reads the buffer until it is done, so returning early would let the next checkpoint overwrite it
+     * while it is written. The interrupt is restored afterwards.
+     */
+    private void await() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                System.err.println("Checkpoint not written: " + e.getCause());
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * close() method waits for the last checkpoint and stops the writer thread
+     */
+    @Override
+    public void close() {
+        if (pending != null) {
+            await();
+        }
+        writer.shutdown();
+    }
+
+    int getWritten() {
+        return written;
+    }
+
+    int getSkipped() {
+        return skipped;
+    }
+}
@@ -1,468 +1,243 @@
 package org.openjfx.chessgenetic;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
-import javafx.util.Duration;
-import org.jetbrains.annotations.NotNull;
 
-import java.sql.Time;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class is responsible for initializing the chess board and starting the genetic algorithm.
- * It also handles the animation of the genetic algorithm and updating the chess board with the current solution.
+ * The algorithm itself runs in an {@link EvolutionTask}, this class only updates the chess board
+ * with the snapshots it publishes, and the convergence charts with the history of the run (see {@link StatsHistory}).
  */
 
 public class ChessBoardController {
+    private static final int HISTORY_BUCKETS = 256;              // At most 512 points per chart series
+    private static final long CHART_REFRESH_NANOS = 250_000_000L; // The charts are drawn at most 4 times per second
+
     @FXML private GridPane chessBoard;          // The chess board grid
     @FXML private TextField populationSize;     // The population size
     @FXML private TextField targetFitness;      // The target fitness
     @FXML private TextField maxGenerations;     // The maximum number of generations
+    @FXML private TextField islands;            // The number of islands (1 for one population)
     @FXML private TextField conflictsDisplay;   // The number of conflicts
-
-    private List<ChessMatrix> population;       // The current population
-    private Timeline animation;                 // The animation timeline
-    private int currentIndex;                   // The current index for animation
-    private ChessMatrix ultimateSolution;       // The ultimate solution found
-    private int generationCount;                // The current generation count
+    @FXML private Label statusLabel;            // The invalid parameters or the failure of a run
+    @FXML private ComboBox<SelectionType> selectionType; // The parent selection strategy
+    @FXML private ComboBox<CrossoverType> crossoverType; // The crossover operator
+    @FXML private LineChart<Number, Number> conflictsChart; // The best, mean and worst conflicts per generation
+    @FXML private LineChart<Number, Number> diversityChart; // The diversity per generation
+
+    @FXML private Button pauseButton;           // The pause / resume button
+    @FXML private Button stopButton;            // The stop button
+
+    private EvolutionTask evolutionTask;        // The running evolution
+    private BoardRenderer boardRenderer;        // Draws the boards on the squares
+    private StatsHistory history = new StatsHistory(HISTORY_BUCKETS); // The history of the current run, for the charts
+    private final List<XYChart.Series<Number, Number>> chartSeries = new ArrayList<>(); // By StatsHistory.Series ordinal
+    private final int[] chartGenerations = new int[2 * HISTORY_BUCKETS]; // Reused by refreshCharts()
+    private final double[] chartValues = new double[2 * HISTORY_BUCKETS]; // Reused by refreshCharts()
+    private long chartVersion = -1;             // The history version drawn on the charts
+    private long lastChartRefresh;              // When the charts were last drawn
 
     /**
      * Initializes the chess board grid with alternating light and dark squares.
      */
     @FXML
     public void initialize() {
+        StackPane[] squares = new StackPane[64];
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
                 StackPane square = new StackPane();
                 String color = (row + col) % 2 == 0 ? "light-square" : "dark-square";
                 square.getStyleClass().addAll("chess-square", color);
                 chessBoard.add(square, col + 1, row); // +1 for coordinate labels
+                squares[row * 8 + col] = square;
             }
         }
+        boardRenderer = new BoardRenderer(squares);
 
         if (conflictsDisplay != null) {
             conflictsDisplay.setEditable(false);
             conflictsDisplay.setText("0");
         }
-    }
-
-    /*
-    @FXML
-    private void startEvolution() {
-        // Stop any existing animation
-        if (animation != null) {
-            animation.stop();
-        }
-
-        // Parse parameters
-        int popSize = Integer.parseInt(populationSize.getText());
-        int maxGen = Integer.parseInt(maxGenerations.getText());
-        double targetFitness = Double.parseDouble(this.targetFitness.getText());
-        conflictsDisplay.clear();
 
-        // Reset generation counter and ultimate solution
-        generationCount = 0;
-        ultimateSolution = new ChessMatrix(); // Initialize with worst possible solution
-
-        // Generate initial population
-        population = new ArrayList<>(popSize);
-        for (int i = 0; i < popSize; i++) {
-            population.add(new ChessMatrix());
+        if (selectionType != null) {
+            selectionType.getItems().setAll(SelectionType.values());
+            selectionType.setValue(SelectionType.ROULETTE);
         }
 
-        // Reset index for animation
-        currentIndex = 0;
-
-        // Create animation timeline
-        animation = new Timeline(
-                new KeyFrame(Duration.seconds(0.03), e -> {
-                    if (currentIndex < population.size()) {
-                        // Display current solution during animation
-                        ChessMatrix current = population.get(currentIndex);
-                        displaySolution(current);
-                        conflictsDisplay.setText(String.valueOf(current.getConflicts()));
-                        currentIndex++;
-                    } else {
-                        // Evolution logic
-                        evolvePopulation(popSize, maxGen);
-                    }
-                })
-        );
-
-        animation.setCycleCount(Animation.INDEFINITE);
-        animation.play();
-    }*/
-
-    /*private void evolvePopulation(int popSize, int maxGen) {
-        // Find and display best solution in the current generation
-        ChessMatrix bestSolution = findBestSolution();
-        displaySolution(bestSolution);
-        conflictsDisplay.setText(String.valueOf(bestSolution.getConflicts()));
-
-        // Update ultimate solution if the current best is better
-        if (bestSolution.getConflicts() < ultimateSolution.getConflicts()) {
-            System.out.println("New ultimate solution found: " + bestSolution.getConflicts());
-            ultimateSolution = bestSolution;
+        if (crossoverType != null) {
+            crossoverType.getItems().setAll(CrossoverType.values());
+            crossoverType.setValue(CrossoverType.HALF_SWAP);
         }
 
-        System.out.println("Generation: " + generationCount + ", Best solution: " + bestSolution.getConflicts());
-
-        // Increment generation
-        generationCount++;
-
-        // Check termination conditions
-        if (ultimateSolution.getConflicts() == 0 || generationCount >= maxGen) {
-            System.out.println("Evolution complete after " + generationCount + " generations");
-            System.out.println("Ultimate solution has " + ultimateSolution.getConflicts() + " conflicts");
-
-            // Ensure we display the ultimate solution
-            displaySolution(ultimateSolution);
-            conflictsDisplay.setText(String.valueOf(ultimateSolution.getConflicts()));
-
-            animation.stop();
-            return;
+        if (conflictsChart != null && diversityChart != null) {
+            for (StatsHistory.Series series : StatsHistory.Series.values()) {
+                XYChart.Series<Number, Number> chart = new XYChart.Series<>();
+                chart.setName(series.getLabel());
+                chartSeries.add(chart);
+                boolean diversity = series == StatsHistory.Series.DIVERSITY || series == StatsHistory.Series.DISTANCE;
+                (diversity ? diversityChart : conflictsChart).getData().add(chart);
+            }
+            for (LineChart<Number, Number> chart : List.of(conflictsChart, diversityChart)) {
+                chart.setAnimated(false);
+                chart.setCreateSymbols(false);
+            }
         }
-
-        // Create next generation
-        System.out.println("Starting Crossover Generation: " + generationCount + ", Best solution: " + bestSolution.getConflicts());
-        List<Pair<ChessMatrix, ChessMatrix>> parentPairs = selectParents(population, popSize / 2);
-        population = crossOver(parentPairs);
-
-        // Reset for next animation cycle
-        currentIndex = 0;
-    }*/
+    }
 
     /**
-     *  Starts the genetic algorithm.
+     *  Starts the genetic algorithm on a background thread.
      *  Steps:
      *  1- Parse parameters (gets the params from the user (populationSize, maxGeneration, targetFitness))
-     *  2- Initialize generationCount and ultimateSolution
-     *  3- Generate pop size initial population
-     *  4- Find initial best solution
-     *  5- Run evolution loop until we reach either the max gen or conflict = 0
-     *      5.1 Find the best solution in current generation
-     *      5.2 Update ultimate solution if the current best solution is better than the ultimate solution
-     *      5.3 Selection step: Select parents for crossover
-     *      5.4 Crossover step: Create offspring from parent pairs
-     *      5.5 Mutation step: Mutate offspring (in our case it happens only to crossover offspring)
+     *     and create the engine (or the island model), invalid parameters are shown and the current run goes on
+     *  2- Cancel the previous run if there is one
+     *  3- Create the task that runs the engine, with a new history (the cancelled run may still be adding to its own)
+     *  4- Display every snapshot the task publishes (on the FX thread), as long as it is the current task
+     *  5- Start the task on a daemon thread
+     * @see EvolutionEngine
      * @see <a href="https://en.wikipedia.org/wiki/Genetic_algorithm">Genetic Algorithm</a>
      */
     @FXML
     private void startEvolution() {
-        // Stop any existing animation
-        if (animation != null) {
-            animation.stop();
-        }
-
         // 1- Parse parameters (gets the params from the user (populationSize, maxGeneration, targetFitness))
-        int popSize = Integer.parseInt(populationSize.getText());
-        int maxGen = Integer.parseInt(maxGenerations.getText());
-        double targetFitness = Double.parseDouble(this.targetFitness.getText());
-
-        conflictsDisplay.clear();
-
-        // 2- Initialize generationCount and ultimateSolution
-        generationCount = 0;
-        ultimateSolution = new ChessMatrix();
-
-        // 3- Generate pop size initial population
-        population = new ArrayList<>(popSize);
-        for (int i = 0; i < popSize; i++) {
-            population.add(new ChessMatrix());
-        }
-
-        // Console display (Debugging)
-        System.out.println("Starting fast evolution with population size: " + popSize + ", max generations: " + maxGen);
-
-        // 4- Find initial best solution
-        ChessMatrix bestSolution = findBestSolution();
-        ultimateSolution = bestSolution;
-
-        // 5- Run evolution loop until we reach either the max gen or conflict = 0
-        while (generationCount < maxGen && ultimateSolution.getConflicts() > 0) {
-            // 5.1 Find the best solution in current generation
-            bestSolution = findBestSolution();
-
-            // 5.2 Update ultimate solution if the current best solution is better than the ultimate solution
-            if (bestSolution.getConflicts() < ultimateSolution.getConflicts()) {
-                System.out.println("New ultimate solution found: " + bestSolution.getConflicts()); // Console display (Debugging)
-                ultimateSolution = bestSolution;
+        //    and create the engine (or the island model), invalid parameters are shown and the current run goes on
+        Evolution engine;
+        try {
+            EvolutionConfig config = new EvolutionConfig();
+            config.setPopulationSize(Integer.parseInt(populationSize.getText()));
+            config.setMaxGenerations(Integer.parseInt(maxGenerations.getText()));
+            config.setTargetFitness(Double.parseDouble(targetFitness.getText()));
+            if (selectionType != null && selectionType.getValue() != null) {
+                config.setSelectionType(selectionType.getValue());
             }
-
-            // Console display (Debugging)
-            System.out.println("Generation: " + generationCount + ", Best solution: " + bestSolution.getConflicts());
-
-            // 5.3 Selection step: Select parents for crossover
-            List<Pair<ChessMatrix, ChessMatrix>> parentPairs = selectParents(population, popSize / 2);
-
-            // 5.4 Crossover step: Create offspring from parent pairs
-            // 5.5 Mutation step: Mutate offspring (in our case it happens only to crossover offspring)
-            population = crossOver(parentPairs);
-
-            // Increment generation count
-            generationCount++;
+            if (crossoverType != null && crossoverType.getValue() != null) {
+                config.setCrossoverType(crossoverType.getValue());
+            }
+            if (islands != null) {
+                config.setIslands(Integer.parseInt(islands.getText()));
+            }
+            engine = config.getIslands() > 1 ? new IslandModel(config) : new EvolutionEngine(config);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            showStatus("Invalid parameters: " + e.getMessage());
+            return;
         }
+        showStatus("");
 
-        // Evolution complete - display final solution
-        System.out.println("Evolution complete after " + generationCount + " generations");
-        System.out.println("Ultimate solution has " + ultimateSolution.getConflicts() + " conflicts");
-
-        // Display the ultimate solution in the UI
-        displaySolution(ultimateSolution);
-        conflictsDisplay.setText(String.valueOf(ultimateSolution.getConflicts()));
-    }
-
-
-    /**
-     * Finds the best solution in the current population.
-     * @return The ChessMatrix with the lowest number of conflicts
-     */
-    private ChessMatrix findBestSolution() {
-        return population.stream()
-                .min(Comparator.comparingInt(ChessMatrix::getConflicts))
-                .orElseThrow(() -> new RuntimeException("Population is empty"));
-    }
-
-
-    /**
-     * Crossover step: Create offspring from parent pairs
-     * the mutation happens here
-     * @see ChessMatrix
-     * @param parentPairs
-     * @return offSpring List
-     */
-    private List<ChessMatrix> crossOver(List<Pair<ChessMatrix, ChessMatrix>> parentPairs) {
-
-        // Console display (Debugging)
-        System.out.println("Starting Crossover");
-
-        // Initialize an offSpring list
-        List<ChessMatrix> offSpring = new ArrayList<>();
-
-        // Loop through the parent pairs
-        for (Pair<ChessMatrix, ChessMatrix> pair: parentPairs) {
-            Vector<Character> parent1 = pair.getFirst().getBoardVictor();
-            Vector<Character> parent2 = pair.getSecond().getBoardVictor();
-
-            // Create children
-            ChessMatrix child1 = new ChessMatrix();
-            ChessMatrix child2 = new ChessMatrix();
-
-            // Get random value for the crossover probability = 80%
-            if (Math.random() <= 0.8) {
-
-                // Single point crossover
-                int crossoverPoint = 32;
-                for (int i = 0; i < 64; i++) {
-                    if (i < crossoverPoint) {
-                        child1.getBoardVictor().add(parent1.get(i));
-                        child2.getBoardVictor().add(parent2.get(i));
-                    } else {
-                        child1.getBoardVictor().add(parent2.get(i));
-                        child2.getBoardVictor().add(parent1.get(i));
-                    }
-                }
-                // Mutate children
-                child1.mutate();
-                child2.mutate();
+        // 2- Cancel the previous run if there is one
+        if (evolutionTask != null && evolutionTask.isRunning()) {
+            evolutionTask.cancel();
+        }
+        conflictsDisplay.clear();
 
-                // Add children to the offspring list
-                offSpring.add(child1);
-                offSpring.add(child2);
-            }else {
-                // If the random value is greater than 0.8, add the parents to the offspring list
-                offSpring.add(pair.getFirst());
-                offSpring.add(pair.getSecond());
+        // 3- Create the task that runs the engine, with a new history (the cancelled run may still be adding to its own)
+        history = new StatsHistory(HISTORY_BUCKETS);
+        chartVersion = -1;
+        EvolutionTask task = new EvolutionTask(engine, history);
+
+        // 4- Display every snapshot the task publishes (on the FX thread), as long as it is the current task
+        task.valueProperty().addListener((observable, oldSnapshot, snapshot) -> {
+            if (snapshot != null && task == evolutionTask) {
+                displaySolution(snapshot.getBoard());
+                conflictsDisplay.setText(String.valueOf(snapshot.getBestConflicts()));
+                refreshCharts(snapshot.isFinished());
+            }
+        });
+        task.setOnFailed(event -> {
+            task.getException().printStackTrace();
+            if (task == evolutionTask) {
+                showStatus("Run failed: " + task.getException().getMessage());
             }
+        });
+        if (pauseButton != null) {
+            pauseButton.setText("Pause");
+            pauseButton.disableProperty().bind(task.runningProperty().not());
+        }
+        if (stopButton != null) {
+            stopButton.disableProperty().bind(task.runningProperty().not());
         }
 
-        return offSpring;
+        // 5- Start the task on a daemon thread
+        evolutionTask = task;
+        Thread thread = new Thread(task, "evolution-engine");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
-     * Selects parent pairs using roulette wheel selection based on cumulative probability.
-     * Each parent is selected only once, and probabilities are recalculated after each selection.
-     * @param population The list of ChessMatrix individuals
-     * @param numPairs The number of parent pairs to select
-     * @return List of parent pairs for crossover
+     * Pauses the running evolution, or resumes it if it is already paused.
      */
-    private List<Pair<ChessMatrix, ChessMatrix>> selectParents(List<ChessMatrix> population, int numPairs) {
-        // Create a copy of the population to work with
-        List<ChessMatrix> remainingPopulation = new ArrayList<>(population);
-        List<Pair<ChessMatrix, ChessMatrix>> parentPairs = new ArrayList<>();
-        Random random = new Random();
-
-        for (int i = 0; i < numPairs; i++) {
-            // Recalculate selection fitness for the remaining population
-            calculateSelectionFitness(remainingPopulation);
-
-            // Calculate cumulative probabilities
-            List<Double> cumulativeProbabilities = new ArrayList<>();
-            double sum = 0;
-            for (ChessMatrix individual : remainingPopulation) {
-                sum += individual.getSelectionFitness();
-                cumulativeProbabilities.add(sum);
-            }
-
-            // Ensure we have enough individuals to form a pair
-            if (remainingPopulation.size() < 2) {
-                break;
-            }
-
-            // Select first parent
-            double r1 = random.nextDouble();
-            int firstIndex = selectIndividualIndex(cumulativeProbabilities, r1);
-            ChessMatrix parent1 = remainingPopulation.get(firstIndex);
-
-            // Remove the first parent from the remaining population
-            remainingPopulation.remove(firstIndex);
-
-            // Recalculate selection fitness and cumulative probabilities
-            calculateSelectionFitness(remainingPopulation);
-            cumulativeProbabilities.clear();
-            sum = 0;
-            for (ChessMatrix individual : remainingPopulation) {
-                sum += individual.getSelectionFitness();
-                cumulativeProbabilities.add(sum);
-            }
-
-            // Select second parent
-            double r2 = random.nextDouble();
-            int secondIndex = selectIndividualIndex(cumulativeProbabilities, r2);
-            ChessMatrix parent2 = remainingPopulation.get(secondIndex);
-
-            // Remove the second parent from the remaining population
-            remainingPopulation.remove(secondIndex);
-
-            // Create pair and add to list
-            parentPairs.add(new Pair<>(parent1, parent2));
+    @FXML
+    private void togglePause() {
+        if (evolutionTask == null || !evolutionTask.isRunning()) {
+            return;
+        }
+        if (evolutionTask.isPaused()) {
+            evolutionTask.resume();
+            pauseButton.setText("Pause");
+        } else {
+            evolutionTask.pause();
+            pauseButton.setText("Resume");
         }
-
-        return parentPairs;
     }
 
     /**
-     * Calculate the selection fitness for each individual in the population.
-     * @param population
+     * Stops the running evolution, the best solution found so far stays on the board.
      */
-    private void calculateSelectionFitness(@NotNull List<ChessMatrix> population) {
-        // Calculate the total fitness
-        double totalFitness = population.stream()
-                .mapToDouble(ChessMatrix::getFitness)
-                .sum();
-
-        for (ChessMatrix matrix : population) {
-            matrix.setSelectionFitness(matrix.getFitness() / totalFitness);
+    @FXML
+    private void stopEvolution() {
+        if (evolutionTask != null) {
+            evolutionTask.cancel();
         }
     }
 
     /**
-     * Selects the index of an individual based on the cumulative probabilities.
-     * @param cumulativeProbabilities The list of cumulative probabilities
-     * @param randomValue The random value to use for selection
-     * @return The index of the selected individual
+     * refreshCharts() method draws the history of the run on the charts, a few times per second at most
+     * (two points per bucket of the history: its minimum then its maximum)
+     * @param force draw now, even if the charts were drawn a moment ago
      */
-    private int selectIndividualIndex(List<Double> cumulativeProbabilities, double randomValue) {
-        for (int j = 0; j < cumulativeProbabilities.size(); j++) {
-            if (randomValue <= cumulativeProbabilities.get(j)) {
-                return j;
+    private void refreshCharts(boolean force) {
+        long now = System.nanoTime();
+        if (chartSeries.isEmpty() || (!force && now - lastChartRefresh < CHART_REFRESH_NANOS)
+                || history.getVersion() == chartVersion) {
+            return;
+        }
+        lastChartRefresh = now;
+        chartVersion = history.getVersion();
+        for (StatsHistory.Series series : StatsHistory.Series.values()) {
+            int points = history.copy(series, chartGenerations, chartValues);
+            List<XYChart.Data<Number, Number>> data = new ArrayList<>(points);
+            for (int i = 0; i < points; i++) {
+                data.add(new XYChart.Data<>(chartGenerations[i], chartValues[i]));
             }
+            chartSeries.get(series.ordinal()).getData().setAll(data);
         }
-        // Fallback to last individual if no match found (shouldn't happen if probabilities sum to 1)
-        return cumulativeProbabilities.size() - 1;
     }
 
     /**
-     * Simple Pair inner class to hold two ChessMatrix objects
+     * showStatus() method shows a message under the conflicts (the invalid parameters or the failure of a run)
+     * @param message the message, empty to clear it
      */
-    private static class Pair<A, B> {
-        private final A first;
-        private final B second;
-
-        public Pair(A first, B second) {
-            this.first = first;
-            this.second = second;
-        }
-
-        public A getFirst() {
-            return first;
-        }
-
-        public B getSecond() {
-            return second;
+    private void showStatus(String message) {
+        if (statusLabel != null) {
+            statusLabel.setText(message);
         }
     }
 
     /**
-     * Ui display method
-     * @param solution
+     * Ui display method: only the squares that changed since the last board are redrawn (see BoardRenderer)
+     * @param board the board to display
      */
-    private void displaySolution(ChessMatrix solution) {
-        // Clear current board
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                StackPane square = (StackPane) chessBoard.getChildren().get(row * 8 + col);
-                square.getChildren().clear();
-
-                char piece = solution.getBoard()[row][col];
-                if (piece != 0) {
-                    try {
-                        ImageView pieceImage = new ImageView();
-
-                        String imagePath = switch (piece) {
-                            case 'Q' -> "/org/openjfx/chessgenetic/whiteQ.png";
-                            case 'q' -> "/org/openjfx/chessgenetic/blackQ.png";
-                            case 'R' -> "/org/openjfx/chessgenetic/whiteR.png";
-                            case 'r' -> "/org/openjfx/chessgenetic/blackR.png";
-                            case 'K' -> "/org/openjfx/chessgenetic/whiteK.png";
-                            case 'k' -> "/org/openjfx/chessgenetic/blackK.png";
-                            case 'B' -> "/org/openjfx/chessgenetic/whiteB.png";
-                            case 'b' -> "/org/openjfx/chessgenetic/blackB.png";
-                            default -> null;
-                        };
-
-                        if (imagePath != null) {
-                            // Use safe resource loading
-                            var imageStream = getClass().getResourceAsStream(imagePath);
-                            if (imageStream != null) {
-                                pieceImage.setImage(new javafx.scene.image.Image(imageStream));
-                                pieceImage.setFitHeight(48);
-                                pieceImage.setFitWidth(48);
-                                pieceImage.setPreserveRatio(true);
-                                square.getChildren().add(pieceImage);
-                            } else {
-                                // Fallback to text representation
-                                Label pieceLabel = new Label(String.valueOf(piece));
-                                pieceLabel.getStyleClass().add("chess-piece");
-                                square.getChildren().add(pieceLabel);
-                                System.out.println("Could not find image: " + imagePath);
-                            }
-                        } else {
-                            // For cases where no image path is defined
-                            Label pieceLabel = new Label(String.valueOf(piece));
-                            pieceLabel.getStyleClass().add("chess-piece");
-                            square.getChildren().add(pieceLabel);
-                        }
-                    } catch (Exception e) {
-                        // Provide detailed error information
-                        System.err.println("Error loading image for piece: " + piece);
-                        e.printStackTrace();
-
-                        // Fallback to text representation
-                        Label pieceLabel = new Label(String.valueOf(piece));
-                        pieceLabel.getStyleClass().add("chess-piece");
-                        square.getChildren().add(pieceLabel);
-                    }
-                }
-            }
-        }
+    private void displaySolution(char[][] board) {
+        boardRenderer.render(board);
     }
-}
\ No newline at end of file
+}
@@ -1,289 +1,265 @@
 package org.openjfx.chessgenetic;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 
 /**
  *
- * This class represents a chess board (matrix, vector, fitness, selectionFitness, conflicts, conflictList)
+ * This class represents a chess board (genome, bitboards, fitness, conflicts)
+ * the genome is one byte per square (see {@link Pieces}), the bitboards are derived from it
+ * and the char[][] board is only built when somebody asks for it (UI)
+ * the conflict counting allocates nothing, the readable conflict list is only built by explainConflicts()
+ * the Zobrist hash of the genome and of its symmetric boards are kept up to date (see {@link Symmetry}),
+ * so a {@link FitnessCache} keyed on the canonical hash can be consulted before any scoring
  * the mutation is performed here because it is a method that changes the board
- * @version 1.0
+ * @version 1.1
  * @since 2025-03-11
  * @see java.util
+ * @see Attacks
  * @author Sellami Mohamed Oday
  */
-public class ChessMatrix{
-    private static final int BOARD_SIZE = 8;
-    private static final double MUTATION_PROBABILITY = 0.1;
-
-    private char[][] board;
-    private Vector<Character> boardVictor;
+public class ChessMatrix implements Solution {
+    private static final int BOARD_SIZE = Attacks.BOARD_SIZE;
+    private static final int SQUARES = Attacks.SQUARES;
+    private static final int HALF = SQUARES / 2;
+    public static final double MUTATION_PROBABILITY = 0.1;   // The default probability of mutate()
+    private static final boolean CHECK_DELTA = Boolean.getBoolean("chessgenetic.checkDelta");
+
+    private final byte[] genome;                // One piece code per square (row * 8 + col)
+    private long occupancy;                     // Every occupied square
+    private final long[] kindMasks;             // The squares of each piece kind (both colours)
+    private char[][] board;                     // Lazy char view of the genome, null until asked
+    private final FitnessFunction fitnessFunction;
+    private FitnessCache fitnessCache;          // Consulted before scoring, null if there is none
+    private final long[] hashes = new long[Symmetry.COUNT]; // The Zobrist hash of the board under every symmetry
     private double fitness;
-    private double selectionFitness;
     private int conflicts;
-    private List<String> conflictList;
+
+    private static final byte[] UPPER_PIECES = {Pieces.QUEEN, Pieces.QUEEN, Pieces.ROOK, Pieces.KNIGHT, Pieces.BISHOP};
 
     public ChessMatrix() {
-        board = new char[BOARD_SIZE][BOARD_SIZE];
-        conflictList = new ArrayList<>();
-        boardVictor = new Vector<Character>();
-        initializeRandomBoard();
+        this(FitnessFunction.DEFAULT);
+    }
+
+    /**
+     * Creates a random board scored by the given fitness function
+     * @param fitnessFunction the fitness function
+     */
+    public ChessMatrix(FitnessFunction fitnessFunction) {
+        this(fitnessFunction, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Creates a random board scored by the given fitness function
+     * @param fitnessFunction the fitness function
+     * @param random the random generator used to place the pieces (seeded runs pass their own)
+     */
+    public ChessMatrix(FitnessFunction fitnessFunction, RandomGenerator random) {
+        this.fitnessFunction = fitnessFunction;
+        genome = new byte[SQUARES];
+        kindMasks = new long[Pieces.KNIGHT + 1];
+        initializeRandomBoard(random);
         calculateConflicts();
         calculateFitness();
     }
 
     /**
-     *  initializeRandomBoard() method initializes the board with random pieces
-     *  and sets the vector of the board
+     * Creates a board from an existing genome (crossover children)
+     * @param genome the piece codes, copied
      */
-    private void initializeRandomBoard() {
+    public ChessMatrix(byte[] genome) {
+        this(genome, FitnessFunction.DEFAULT);
+    }
 
-        // 1- Initialize the board with empty cells
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = 'e';
-            }
+    /**
+     * Creates a board from an existing genome scored by the given fitness function
+     * @param genome the piece codes, copied
+     * @param fitnessFunction the fitness function
+     */
+    public ChessMatrix(byte[] genome, FitnessFunction fitnessFunction) {
+        this.fitnessFunction = fitnessFunction;
+        if (genome.length != SQUARES) {
+            throw new IllegalArgumentException("A genome has " + SQUARES + " squares, got " + genome.length);
         }
+        this.genome = genome.clone();
+        kindMasks = new long[Pieces.KNIGHT + 1];
+        updateBitboards();
+        calculateConflicts();
+        calculateFitness();
+    }
+
+    /**
+     * randomize() method replaces the board with a new random one, in place (the board is used as a cursor)
+     * @param random the random generator
+     */
+    public void randomize(RandomGenerator random) {
+        Arrays.fill(genome, Pieces.EMPTY);
+        initializeRandomBoard(random);
+        calculateConflicts();
+        calculateFitness();
+    }
+
+    /**
+     * load() method replaces the board with a genome stored in a bigger array, in place, and rescores it
+     * (the board is used as a cursor over a {@link Population})
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     */
+    public void load(byte[] genes, int offset) {
+        System.arraycopy(genes, offset, genome, 0, SQUARES);
+        updateBitboards();
+        calculateConflicts();
+        calculateFitness();
+    }
+
+    /**
+     *  initializeRandomBoard() method initializes the board with random pieces
+     *  and sets the bitboards of the board
+     *  @param random the random generator
+     */
+    private void initializeRandomBoard(RandomGenerator random) {
+
+        // 1- The genome starts with empty cells (Pieces.EMPTY == 0)
 
         // 2- Create two lists of pieces (upper and lower)
-        List<Character> upperPieces = new ArrayList<>(List.of('Q', 'Q', 'R', 'K', 'B'));
-        List<Character> lowerPieces = new ArrayList<>(List.of('q', 'q', 'r', 'k', 'b'));
+        byte[] upperPieces = UPPER_PIECES.clone();
+        byte[] lowerPieces = new byte[UPPER_PIECES.length];
+        for (int i = 0; i < lowerPieces.length; i++) {
+            lowerPieces[i] = (byte) (UPPER_PIECES[i] | Pieces.BLACK);
+        }
 
         // 3- Shuffle the pieces
-        Collections.shuffle(upperPieces);
-        Collections.shuffle(lowerPieces);
+        shuffle(upperPieces, random);
+        shuffle(lowerPieces, random);
 
         // 4- Place upper pieces in the top half (rows 0-3)
         int index = 0;
-        while (index < upperPieces.size()) {
-            int row = (int) (Math.random() * 4);
-            int col = (int) (Math.random() * BOARD_SIZE);
+        while (index < upperPieces.length) {
+            int square = random.nextInt(HALF);
 
-            if (board[row][col] == 'e') {
-                board[row][col] = upperPieces.get(index);
+            if (genome[square] == Pieces.EMPTY) {
+                genome[square] = upperPieces[index];
                 index++;
             }
         }
 
         // 5- Place lower pieces in the bottom half (rows 4-7)
         index = 0;
-        while (index < lowerPieces.size()) {
-            int row = (int) (Math.random() * 4) + 4;
-            int col = (int) (Math.random() * BOARD_SIZE);
+        while (index < lowerPieces.length) {
+            int square = HALF + random.nextInt(HALF);
 
-            if (board[row][col] == 'e') {
-                board[row][col] = lowerPieces.get(index);
+            if (genome[square] == Pieces.EMPTY) {
+                genome[square] = lowerPieces[index];
                 index++;
             }
         }
 
-        // 6- Set the vector of the board
-        setBoardVictor(boardToVictor());
+        // 6- Set the bitboards of the board
+        updateBitboards();
     }
 
     /**
-     *  calculateConflicts() method calculates the number of conflicts in the board
-     *  and get the conflict attributes
+     * shuffle() method shuffles the pieces in place (Fisher-Yates)
      */
-    private void calculateConflicts() {
-        conflicts = 0;
-        for (int i = 0 ; i < BOARD_SIZE ; i++) {
-            for (int j = 0 ; j < BOARD_SIZE ; j++) {
-                if (board[i][j] != 'e') {
-                    conflicts += checkPieceConflicts(i, j);
-                }
-            }
+    private static void shuffle(byte[] pieces, RandomGenerator random) {
+        for (int i = pieces.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte temp = pieces[i];
+            pieces[i] = pieces[j];
+            pieces[j] = temp;
         }
     }
 
     /**
-     * checkPieceConflicts() method checks the conflicts of a piece in the board
-     * @param row
-     * @param col
-     * @return the sum piece conflicts
+     * updateBitboards() method rebuilds the occupancy and piece kind masks and the hash from the genome
      */
-    private int checkPieceConflicts(int row, int col) {
-        int pieceConflicts = 0;
-        char piece = board[row][col];
-
-        switch (Character.toUpperCase(piece)) {
-            case 'Q': pieceConflicts += checkQueenConflicts(row, col); break;
-            case 'R': pieceConflicts += checkRookConflicts(row, col); break;
-            case 'B': pieceConflicts += checkBishopConflicts(row, col); break;
-            case 'K': pieceConflicts += checkKnightConflicts(row, col); break;
+    private void updateBitboards() {
+        occupancy = 0;
+        Arrays.fill(kindMasks, 0);
+        Arrays.fill(hashes, 0);
+        for (int square = 0; square < SQUARES; square++) {
+            if (genome[square] != Pieces.EMPTY) {
+                occupancy |= 1L << square;
+                kindMasks[Pieces.kind(genome[square])] |= 1L << square;
+                for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                    hashes[symmetry] ^= Symmetry.key(symmetry, square, genome[square]);
+                }
+            }
         }
-
-        return pieceConflicts + calculateAllPenalties();
+        board = null;
     }
 
     /**
-     * queenPenalty() method calculates the number of queens in the same column beyond the first one
-     *
-     * @return the penalty
+     *  calculateConflicts() method calculates the number of conflicts in the board
+     *  the fitness cache (if any) is consulted first with the canonical hash, and filled on a miss
+     *  @see FitnessFunction
      */
-    private int queenPenalty() {
-        int penalty = 0;
-        // Create an array to count queens in each column
-        int[] columnCounts = new int[8];
-
-        // Count the queens in each column
-        for (int col = 0; col < 8; col++) {
-            for (int row = 0; row < 8; row++) {
-                if (board[row][col] == 'Q' || board[row][col] == 'q') {
-                    columnCounts[col]++;
-                }
+    private void calculateConflicts() {
+        if (fitnessCache != null) {
+            int cached = fitnessCache.get(getCanonicalHash());
+            if (cached != FitnessCache.MISSING) {
+                conflicts = cached;
+                return;
             }
         }
-
-        // Calculate penalty for each column with multiple queens
-        for (int col = 0; col < 8; col++) {
-            if (columnCounts[col] > 1) {
-                penalty += (columnCounts[col] - 1);
-            }
+        conflicts = fitnessFunction.conflicts(occupancy, kindMasks);
+        if (fitnessCache != null) {
+            fitnessCache.put(getCanonicalHash(), conflicts);
         }
-
-        return penalty;
-    }
-
-    /**
-     * checkQueenConflicts() method checks the conflicts of a queen
-     * @param row
-     * @param col
-     * @return the queen conflicts
-     */
-    private int checkQueenConflicts(int row, int col) {
-        int conflicts = 0;
-
-        conflicts += checkDiagonalConflicts(row, col);
-        conflicts += checkStraightConflicts(row, col);
-
-        return conflicts;
     }
 
     /**
-     * checkRookConflicts() method checks the conflicts of a rook
-     * @param row
-     * @param col
-     * @return the rook conflicts
+     * explainConflicts() method lists every conflict of the board in a readable form
+     * it walks the board again, so only call it on boards somebody actually looks at (the ultimate solution...)
+     * Steps:
+     * 1- List the attacks of every piece (the same rules as FitnessFunction)
+     * 2- Add the line penalties (counted once per piece or once per board, see FitnessFunction.PenaltyMode)
+     * @return one line per conflict, e.g. "Knight (0,1) -> (2,2)"
      */
-    private int checkRookConflicts(int row, int col) {
-        return checkStraightConflicts(row, col);
-    }
+    public List<String> explainConflicts() {
+        List<String> explanation = new ArrayList<>();
 
-    /**
-     * checkBishopConflicts() method checks the conflicts of a bishop
-     * @param row
-     * @param col
-     * @return the bishop conflicts
-     */
-    private int checkBishopConflicts(int row, int col) {
-        return checkDiagonalConflicts(row, col);
-    }
+        // 1- List the attacks of every piece (the same rules as FitnessFunction)
+        for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            int kind = Pieces.kind(genome[square]);
 
-    /**
-     * checkKnightConflicts() method checks the conflicts of a knight
-     * @param row
-     * @param col
-     * @return the knight conflicts
-     */
-    private int checkKnightConflicts(int row, int col) {
-        int conflicts = 0;
-
-        // Define the moves of a knight (L shape)
-        int[][] knightMoves = {
-                {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
-                {1, -2}, {1, 2}, {2, -1}, {2, 1}
-        };
-
-        for (int[] move : knightMoves) {
-            int newRow = row + move[0];
-            int newCol = col + move[1];
-
-            if (isValidPosition(newRow, newCol) && board[newRow][newCol] != 'e'){
-                /*if (Character.isUpperCase(board[row][col]) != Character.isUpperCase(board[newRow][newCol])) {
-                    conflicts++;
-                }*/
-                conflicts++;
-                conflictList.add(String.format("Knight (%d,%d) -> (%d,%d)", row, col, newRow, newCol)); // Debug statement
+            if (kind == Pieces.QUEEN || kind == Pieces.BISHOP) {
+                explainRayConflicts(square, Attacks.FIRST_DIAGONAL, "Diagonal", explanation);
             }
-        }
-        return conflicts;
-    }
-
-    /**
-     * checkDiagonalConflicts() method checks the conflicts of a piece in the diagonal line
-     * @param row
-     * @param col
-     * @return the diagonal conflicts
-     */
-    private int checkDiagonalConflicts(int row, int col) {
-        int conflicts = 0;
-        //char currentPiece = board[row][col];
-
-        // Define the directions of the diagonal line
-        int[][] directions = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
-
-        for (int[] direction : directions) {
-            int newRow = row + direction[0];
-            int newCol = col + direction[1];
-
-            while (isValidPosition(newRow, newCol)) {
-                if (board[newRow][newCol] != 'e') {
-                    /*if (Character.isUpperCase(currentPiece) != Character.isUpperCase(board[newRow][newCol])) {
-                        conflicts++;
-                    }*/
-                    conflicts++;
-                    conflictList.add(String.format("Diagonal (%d,%d) -> (%d,%d)", row, col, newRow, newCol)); // Debug statement
-                    break;
+            if (kind == Pieces.QUEEN || kind == Pieces.ROOK) {
+                explainRayConflicts(square, Attacks.FIRST_STRAIGHT, "Straight", explanation);
+            }
+            if (kind == Pieces.KNIGHT) {
+                for (long targets = Attacks.KNIGHT[square] & occupancy; targets != 0; targets &= targets - 1) {
+                    explanation.add(describe("Knight", square, Long.numberOfTrailingZeros(targets)));
                 }
-                newRow += direction[0];
-                newCol += direction[1];
             }
         }
-        return conflicts;
+
+        // 2- Add the line penalties (counted once per piece or once per board, see FitnessFunction.PenaltyMode)
+        int penalty = fitnessFunction.penalty(occupancy, kindMasks);
+        if (penalty > 0) {
+            explanation.add(String.format("Queen/Rook line penalties: %d (%s)", penalty, fitnessFunction.getPenaltyMode()));
+        }
+
+        return explanation;
     }
 
-    /**
-     * checkStraightConflicts() method checks the conflicts of a piece in the straight line
-     * @param row
-     * @param col
-     * @return the straight conflicts
-     */
-    private int checkStraightConflicts(int row, int col) {
-        int conflicts = 0;
-        //char currentPiece = board[row][col];
-
-        // Define the directions of the straight line
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-        for (int[] direction : directions) {
-            int newRow = row + direction[0];
-            int newCol = col + direction[1];
-
-            while (isValidPosition(newRow, newCol)) {
-                if (board[newRow][newCol] != 'e') {
-                    /*if (Character.isUpperCase(currentPiece) != Character.isUpperCase(board[newRow][newCol])) {
-                        conflicts++;
-                    }*/
-                    conflicts++;
-                    conflictList.add(String.format("Straight (%d,%d) -> (%d,%d)", row, col, newRow, newCol)); // Debug statement
-                    break;
-                }
-                newRow += direction[0];
-                newCol += direction[1];
+    private void explainRayConflicts(int square, int firstDirection, String line, List<String> explanation) {
+        for (int d = firstDirection; d < firstDirection + 4; d++) {
+            long blockers = Attacks.RAYS[d][square] & occupancy;
+            if (blockers != 0) {
+                explanation.add(describe(line, square, Attacks.nearest(d, blockers)));
             }
         }
-        return conflicts;
     }
 
-    /**
-     * isValidPosition() method checks if the position is valid (not outside the chess board)
-     * @param row
-     * @param col
-     * @return true if the position is valid, false otherwise
-     */
-    private boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE;
+    private static String describe(String line, int from, int to) {
+        return String.format("%s (%d,%d) -> (%d,%d)", line,
+                from / BOARD_SIZE, from % BOARD_SIZE, to / BOARD_SIZE, to % BOARD_SIZE);
     }
 
     /**
@@ -294,261 +270,295 @@ public class ChessMatrix{
      * 2- Choose which half to mutate
      * 3- choose which cell to swap
      * 4- Swap the positions
-     * 5- Convert vector back to 2D board
-     * 6- Recalculate conflicts and fitness after mutation
+     * 5- Update the bitboards, conflicts and fitness (only what the swap touched)
      */
     public void mutate() {
+        mutate(ThreadLocalRandom.current());
+    }
+
+    /**
+     * mutate() method, same as above with the given random generator (seeded runs pass their own)
+     * @param random the random generator
+     */
+    public void mutate(RandomGenerator random) {
+        mutate(random, MUTATION_PROBABILITY);
+    }
+
+    /**
+     * mutate() method, same as above with the given mutation probability (the engine may adapt it, see AdaptiveOperators)
+     * @param random the random generator
+     * @param probability the probability of a swap, in [0, 1]
+     * @return true if two different cells were swapped (false when the genome is unchanged: no swap drawn,
+     * or no pair with a piece found, or two identical pieces)
+     */
+    public boolean mutate(RandomGenerator random, double probability) {
 
         // 1- generate a random number
-        if (Math.random() < MUTATION_PROBABILITY) {
+        if (random.nextDouble() < probability) {
+            int index1, index2;
 
             // 2- Choose which half to mutate
-            if (Math.random() < 0.5) {
+            if (random.nextDouble() < 0.5) {
 
                 // 3- choose which cell to swap
-                int index1, index2;
                 int attempts = 0;
 
                 do {
-                    index1 = (int) (Math.random() * 32);
-                    index2 = (int) (Math.random() * 32);
+                    index1 = random.nextInt(HALF);
+                    index2 = random.nextInt(HALF);
 
                     attempts++;
 
                     // Prevent infinite loop if no valid positions
                     if (attempts > 100) break;
-                } while (index1 == index2 || (boardVictor.get(index1) == 'e' && boardVictor.get(index2) == 'e'));
-
-                // 4- Swap the positions
-                char temp = boardVictor.get(index1);
-                boardVictor.set(index1, boardVictor.get(index2));
-                boardVictor.set(index2, temp);
+                } while (index1 == index2 || (genome[index1] == Pieces.EMPTY && genome[index2] == Pieces.EMPTY));
 
             } else {
                 // Same thing like the upper with the lower half
-                int index1, index2;
                 int attempts = 0;
 
                 do {
-                    index1 = 32 + (int) (Math.random() * 32);
-                    index2 = 32 + (int) (Math.random() * 32);
+                    index1 = HALF + random.nextInt(HALF);
+                    index2 = HALF + random.nextInt(HALF);
 
                     attempts++;
 
                     if (attempts > 100) break;
-                } while (index1 == index2 && (boardVictor.get(index1) == 'e' && boardVictor.get(index2) == 'e'));
-
-                char temp = boardVictor.get(index1);
-                boardVictor.set(index1, boardVictor.get(index2));
-                boardVictor.set(index2, temp);
+                } while (index1 == index2 || (genome[index1] == Pieces.EMPTY && genome[index2] == Pieces.EMPTY));
             }
 
-            // 5- Convert vector back to 2D board
-            victorToBoard();
-
-            // 6- Recalculate conflicts and fitness after mutation
-            conflictList.clear();
-            calculateConflicts();
-            calculateFitness();
+            // 4- Swap the positions, unless the genome would not change (the attempts ran out, or two identical pieces)
+            // 5- Update the bitboards and the conflicts
+            if (genome[index1] == genome[index2]) {
+                return false;
+            }
+            swapAndRescore(index1, index2);
+            return true;
         }
+        return false;
     }
 
     /**
-     *  calculateFitness() method calculates the fitness of the board
-     */
-    private void calculateFitness() {
-        fitness = 1.0 / (1.0 + conflicts);
-    }
-
-    /**
-     * getters and setters
+     * swapAndRescore() method swaps two squares and updates the hashes, the conflicts and fitness incrementally:
+     * the fitness cache (if any) is consulted with the new canonical hash first, on a miss only the pieces that can see
+     * one of the two squares are rescored (see FitnessFunction.swapDelta())
+     * with -Dchessgenetic.checkDelta=true every result is checked against a full recomputation
+     * @param square1
+     * @param square2
+     * @throws IllegalStateException in check mode, if the incremental conflicts or hash are wrong
      */
-
-    public double getFitness() {
-        return fitness;
-    }
-
-    public int getConflicts() {
-        return conflicts;
-    }
-
-    public char[][] getBoard() {
-        return board;
-    }
-
-    public void setSelectionFitness(double selectionFitness) {
-        this.selectionFitness = selectionFitness;
-    }
-
-    public double getSelectionFitness() {
-        return selectionFitness;
-    }
-
-    public Vector<Character> getBoardVictor() {
-        return boardVictor;
-    }
-
-    public void setBoardVictor(Vector<Character> boardVictor) {
-        this.boardVictor = boardVictor;
-    }
-
-    public Vector<Character> boardToVictor() {
-        boardVictor.clear();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                boardVictor.add(board[i][j]);
+    public void swapAndRescore(int square1, int square2) {
+        swap(square1, square2);
+
+        long canonicalHash = getCanonicalHash();
+        int cached = fitnessCache == null ? FitnessCache.MISSING : fitnessCache.get(canonicalHash);
+        if (cached != FitnessCache.MISSING) {
+            conflicts = cached;
+        } else {
+            // Swapping the two squares back would undo the delta, so the delta of the swap is the opposite of that one
+            conflicts -= fitnessFunction.swapDelta(occupancy, kindMasks, square1, square2);
+            if (fitnessCache != null) {
+                fitnessCache.put(canonicalHash, conflicts);
             }
         }
-        return boardVictor;
-    }
 
-    public void victorToBoard() {
-        int index = 0;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = boardVictor.get(index);
-                index++;
+        if (CHECK_DELTA) {
+            int expected = fitnessFunction.conflicts(occupancy, kindMasks);
+            if (expected != conflicts) {
+                throw new IllegalStateException("Incremental conflicts " + conflicts + " != " + expected
+                        + " after swapping " + square1 + " and " + square2);
+            }
+            if (Zobrist.hash(genome, 0) != getHash()) {
+                throw new IllegalStateException("Incremental hash is wrong after swapping " + square1 + " and " + square2);
             }
         }
+        calculateFitness();
     }
 
     /**
-     * Calculates the penalty for queens in the same row.
-     * @return Number of penalties (conflicts) for queens in the same row
+     * climb() method is a min-conflicts hill climb (the local search of the memetic mode)
+     * every step moves the most conflicted piece to the square of its half where the board has the fewest conflicts
+     * (sideways moves are allowed, the ties are broken at random), it stops on a solution, when every move of that piece
+     * makes the board worse, after maxSteps steps or once maxEvaluations moves have been scored
+     * Steps:
+     * 1- Find the most conflicted piece (see FitnessFunction.pieceConflicts())
+     * 2- Score its move to every empty square of its half (incrementally, see FitnessFunction.swapDelta())
+     * 3- Make the best move, unless it makes the board worse
+     * @param maxSteps the maximum number of moves
+     * @param maxEvaluations the maximum number of moves scored
+     * @param random the random generator (ties)
+     * @return the number of moves scored
      */
-    private int calculateQueenRowPenalty() {
-        int penalty = 0;
-
-        // Create an array to count queens in each row
-        int[] rowCounts = new int[8]; // Assuming 8x8 chessboard
+    public int climb(int maxSteps, int maxEvaluations, RandomGenerator random) {
+        int evaluations = 0;
+        for (int step = 0; step < maxSteps && conflicts > 0 && evaluations < maxEvaluations; step++) {
+
+            // 1- Find the most conflicted piece (see FitnessFunction.pieceConflicts())
+            int piece = -1;
+            int worst = -1;
+            int ties = 0;
+            for (long pieces = occupancy; pieces != 0; pieces &= pieces - 1) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                int pieceConflicts = FitnessFunction.pieceConflicts(square, occupancy, kindMasks);
+                if (pieceConflicts > worst) {
+                    piece = square;
+                    worst = pieceConflicts;
+                    ties = 1;
+                } else if (pieceConflicts == worst && random.nextInt(++ties) == 0) {
+                    piece = square;
+                }
+            }
 
-        // Count the queens in each row
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                if (board[row][col] == 'Q' || board[row][col] == 'q') {
-                    rowCounts[row]++;
+            // 2- Score its move to every empty square of its half (incrementally, see FitnessFunction.swapDelta())
+            long half = piece < HALF ? (1L << HALF) - 1 : -1L << HALF;
+            int target = -1;
+            int best = Integer.MAX_VALUE;
+            ties = 0;
+            for (long empty = half & ~occupancy; empty != 0 && evaluations < maxEvaluations; empty &= empty - 1) {
+                int square = Long.numberOfTrailingZeros(empty);
+                int after = conflicts + fitnessFunction.swapDelta(occupancy, kindMasks, piece, square);
+                evaluations++;
+                if (after < best) {
+                    target = square;
+                    best = after;
+                    ties = 1;
+                } else if (after == best && random.nextInt(++ties) == 0) {
+                    target = square;
                 }
             }
-        }
 
-        // Calculate penalty for each row with multiple queens
-        for (int row = 0; row < 8; row++) {
-            if (rowCounts[row] > 1) {
-                // Add penalty of 1 for each queen in the same row beyond the first one
-                penalty += (rowCounts[row] - 1);
+            // 3- Make the best move, unless it makes the board worse
+            if (target < 0 || best > conflicts) {
+                break;
             }
+            swapAndRescore(piece, target);
         }
-
-        return penalty;
+        return evaluations;
     }
 
     /**
-     * Calculates the penalty for queens in the same column.
-     * @return Number of penalties (conflicts) for queens in the same column
+     * swap() method swaps two squares of the genome and updates the bitboards
+     * @param square1
+     * @param square2
      */
-    private int calculateQueenColumnPenalty() {
-        int penalty = 0;
-
-        // Create an array to count queens in each column
-        int[] columnCounts = new int[8]; // Assuming 8x8 chessboard
-
-        // Count the queens in each column
-        for (int col = 0; col < 8; col++) {
-            for (int row = 0; row < 8; row++) {
-                if (board[row][col] == 'Q' || board[row][col] == 'q') {
-                    columnCounts[col]++;
-                }
-            }
+    private void swap(int square1, int square2) {
+        byte piece1 = genome[square1];
+        byte piece2 = genome[square2];
+        if (piece1 == piece2) {
+            return;
+        }
+        genome[square1] = piece2;
+        genome[square2] = piece1;
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            hashes[symmetry] ^= Symmetry.key(symmetry, square1, piece1) ^ Symmetry.key(symmetry, square1, piece2)
+                    ^ Symmetry.key(symmetry, square2, piece2) ^ Symmetry.key(symmetry, square2, piece1);
         }
 
-        // Calculate penalty for each column with multiple queens
-        for (int col = 0; col < 8; col++) {
-            if (columnCounts[col] > 1) {
-                // Add penalty of 1 for each queen in the same column beyond the first one
-                penalty += (columnCounts[col] - 1);
-            }
+        // A mask changes on both squares or on none of them
+        long bits = (1L << square1) | (1L << square2);
+        int kind1 = Pieces.kind(piece1);
+        int kind2 = Pieces.kind(piece2);
+        if (kind1 == Pieces.EMPTY || kind2 == Pieces.EMPTY) {
+            occupancy ^= bits;
+        }
+        if (kind1 != kind2) {
+            if (kind1 != Pieces.EMPTY) kindMasks[kind1] ^= bits;
+            if (kind2 != Pieces.EMPTY) kindMasks[kind2] ^= bits;
         }
+        board = null;
+    }
 
-        return penalty;
+    /**
+     *  calculateFitness() method calculates the fitness of the board
+     */
+    private void calculateFitness() {
+        fitness = FitnessFunction.fitness(conflicts);
     }
 
     /**
-     * Calculates the penalty for rooks in the same row.
-     * @return Number of penalties (conflicts) for rooks in the same row
+     * getters and setters
      */
-    private int calculateRookRowPenalty() {
-        int penalty = 0;
 
-        // Create an array to count rooks in each row
-        int[] rowCounts = new int[8]; // Assuming 8x8 chessboard
+    public double getFitness() {
+        return fitness;
+    }
 
-        // Count the rooks in each row
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                if (board[row][col] == 'R' || board[row][col] == 'r') {
-                    rowCounts[row]++;
-                }
-            }
-        }
+    public int getConflicts() {
+        return conflicts;
+    }
 
-        // Calculate penalty for each row with multiple rooks
-        for (int row = 0; row < 8; row++) {
-            if (rowCounts[row] > 1) {
-                // Add penalty of 1 for each rook in the same row beyond the first one
-                penalty += (rowCounts[row] - 1);
+    /**
+     * getBoard() method returns the char view of the board ('e' for empty cells)
+     * it is built from the genome the first time it is asked for after a change
+     * @return the board
+     */
+    public char[][] getBoard() {
+        if (board == null) {
+            char[][] view = new char[BOARD_SIZE][BOARD_SIZE];
+            for (int square = 0; square < SQUARES; square++) {
+                view[square / BOARD_SIZE][square % BOARD_SIZE] = Pieces.toChar(genome[square]);
             }
+            board = view;
         }
-
-        return penalty;
+        return board;
     }
 
     /**
-     * Calculates the penalty for rooks in the same column.
-     * @return Number of penalties (conflicts) for rooks in the same column
+     * getGenome() method returns the genome itself (not a copy), it must not be modified
+     * @return the piece codes, one per square
      */
-    private int calculateRookColumnPenalty() {
-        int penalty = 0;
+    public byte[] getGenome() {
+        return genome;
+    }
 
-        // Create an array to count rooks in each column
-        int[] columnCounts = new int[8]; // Assuming 8x8 chessboard
+    public FitnessFunction getFitnessFunction() {
+        return fitnessFunction;
+    }
 
-        // Count the rooks in each column
-        for (int col = 0; col < 8; col++) {
-            for (int row = 0; row < 8; row++) {
-                if (board[row][col] == 'R' || board[row][col] == 'r') {
-                    columnCounts[col]++;
-                }
-            }
-        }
+    /**
+     * getHash() method returns the Zobrist hash of the genome (see {@link Zobrist})
+     * @return the hash
+     */
+    public long getHash() {
+        return hashes[Symmetry.IDENTITY];
+    }
 
-        // Calculate penalty for each column with multiple rooks
-        for (int col = 0; col < 8; col++) {
-            if (columnCounts[col] > 1) {
-                // Add penalty of 1 for each rook in the same column beyond the first one
-                penalty += (columnCounts[col] - 1);
-            }
+    /**
+     * getCanonicalHash() method returns the hash of the symmetry class of the board:
+     * the smallest hash of the board under every symmetry, the same for the 4 boards of the class
+     * @return the canonical hash
+     */
+    public long getCanonicalHash() {
+        long canonical = hashes[0];
+        for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+            canonical = Math.min(canonical, hashes[symmetry]);
         }
+        return canonical;
+    }
 
-        return penalty;
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
     }
 
     /**
-     * Calculates all penalties for queens and rooks.
-     * This should be called during fitness calculation.
-     * @return Total number of penalties (conflicts)
+     * setFitnessCache() method sets the cache consulted before every scoring from now on
+     * the cache must only hold conflicts computed by the same fitness function
+     * @param fitnessCache the cache, null for none
      */
-    private int calculateAllPenalties() {
-        int totalPenalties = 0;
-
-        // Calculate all penalties
-        totalPenalties += calculateQueenRowPenalty();
-        totalPenalties += calculateQueenColumnPenalty();
-        totalPenalties += calculateRookRowPenalty();
-        totalPenalties += calculateRookColumnPenalty();
+    public void setFitnessCache(FitnessCache fitnessCache) {
+        this.fitnessCache = fitnessCache;
+    }
 
-        // Add diagonal penalties for queens if needed
-        // totalPenalties += calculateQueenDiagonalPenalties();
+    public long getOccupancy() {
+        return occupancy;
+    }
 
-        return totalPenalties;
+    /**
+     * getKindMask() method returns the squares of one piece kind (both colours)
+     * @param kind Pieces.QUEEN, ROOK, BISHOP or KNIGHT
+     * @return the bitboard of that kind
+     */
+    public long getKindMask(int kind) {
+        return kindMasks[kind];
     }
 }
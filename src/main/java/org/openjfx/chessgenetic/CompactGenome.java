@@ -0,0 +1,90 @@
+package org.openjfx.chessgenetic;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class packs a genome into 10 bytes for the network and the checkpoints: the square of every piece, in a fixed piece order
+ * (the 5 white pieces then the 5 black ones, the two queens of a colour in square order).
+ * Only the positions are kept, the reader rebuilds the genome and scores it itself.
+ * @see MigrationProtocol
+ * @see Checkpoint
+ */
+public final class CompactGenome {
+    public static final int LENGTH = 10;
+
+    private static final byte[] ORDER = {
+            Pieces.QUEEN, Pieces.QUEEN, Pieces.ROOK, Pieces.KNIGHT, Pieces.BISHOP,
+            Pieces.QUEEN | Pieces.BLACK, Pieces.QUEEN | Pieces.BLACK, Pieces.ROOK | Pieces.BLACK,
+            Pieces.KNIGHT | Pieces.BLACK, Pieces.BISHOP | Pieces.BLACK
+    };
+    private static final int[] FIRST_SLOT = new int[Pieces.CODE_COUNT];  // The first slot of each piece code in ORDER
+    private static final int[] SLOTS = new int[Pieces.CODE_COUNT];       // The number of slots of each piece code
+
+    static {
+        Arrays.fill(FIRST_SLOT, -1);
+        for (int slot = ORDER.length - 1; slot >= 0; slot--) {
+            FIRST_SLOT[ORDER[slot]] = slot;
+            SLOTS[ORDER[slot]]++;
+        }
+    }
+
+    private CompactGenome() {
+    }
+
+    /**
+     * encode() method writes the 10 squares of a board, straight into the buffer (no allocation per board)
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @param out where the 10 bytes are written
+     * @throws IllegalArgumentException if the board does not hold exactly the 10 pieces of the puzzle
+     */
+    public static void encode(byte[] genes, int offset, ByteBuffer out) {
+        if (out.remaining() < LENGTH) {
+            throw new BufferOverflowException();
+        }
+        int start = out.position();
+        int filled = 0;                         // One bit per slot of ORDER
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            byte code = genes[offset + square];
+            if (code == Pieces.EMPTY) {
+                continue;
+            }
+            int first = FIRST_SLOT[code];
+            int slot = first;
+            while (first >= 0 && slot < first + SLOTS[code] && (filled & 1 << slot) != 0) {
+                slot++;
+            }
+            if (first < 0 || slot == first + SLOTS[code]) {
+                throw new IllegalArgumentException("Unexpected piece " + Pieces.toChar(code) + " on square " + square);
+            }
+            filled |= 1 << slot;
+            out.put(start + slot, (byte) square);
+        }
+        if (filled != (1 << LENGTH) - 1) {
+            throw new IllegalArgumentException("Missing piece " + Pieces.toChar(ORDER[Integer.numberOfTrailingZeros(~filled)]));
+        }
+        out.position(start + LENGTH);
+    }
+
+    /**
+     * decode() method reads 10 squares and rebuilds the genome
+     * @param in the 10 bytes
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @throws IllegalArgumentException if a square is out of the board, out of the half of its piece or used twice
+     */
+    public static void decode(ByteBuffer in, byte[] genes, int offset) {
+        Arrays.fill(genes, offset, offset + Attacks.SQUARES, Pieces.EMPTY);
+        for (byte code : ORDER) {
+            int square = in.get();
+            boolean black = Pieces.isBlack(code);
+            if (square < 0 || square >= Attacks.SQUARES || (square >= Attacks.SQUARES / 2) != black
+                    || genes[offset + square] != Pieces.EMPTY) {
+                throw new IllegalArgumentException("Invalid square " + square + " for piece " + Pieces.toChar(code));
+            }
+            genes[offset + square] = code;
+        }
+    }
+}
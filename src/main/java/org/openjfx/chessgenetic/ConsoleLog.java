@@ -0,0 +1,92 @@
+package org.openjfx.chessgenetic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class prints the progress lines of the runs on the console from its own thread,
+ * so the engine threads never wait for the console: a line is queued, and dropped if the queue is full
+ * (the writer then prints how many lines were lost).
+ */
+final class ConsoleLog {
+    private static final int CAPACITY = 8192;
+
+    private static final BlockingQueue<String> LINES = new ArrayBlockingQueue<>(CAPACITY); // The lines not printed yet
+    private static final Object LOCK = new Object();
+    private static Thread writer;               // Started with the first line
+    private static long queued;                 // The lines queued or dropped so far (under LOCK)
+    private static long done;                   // The lines printed or dropped so far (under LOCK)
+    private static long dropped;                // The lines dropped and not reported yet (under LOCK)
+
+    private ConsoleLog() {
+    }
+
+    /**
+     * println() method queues a line, it never blocks
+     * @param line the line
+     */
+    static void println(String line) {
+        synchronized (LOCK) {
+            if (writer == null) {
+                writer = new Thread(ConsoleLog::write, "console-log");
+                writer.setDaemon(true);
+                writer.start();
+            }
+            queued++;
+            if (!LINES.offer(line)) {
+                dropped++;
+                done++;
+            }
+        }
+    }
+
+    /**
+     * flush() method waits until every queued line has been printed (at the end of a run)
+     */
+    static void flush() {
+        synchronized (LOCK) {
+            while (done < queued) {
+                try {
+                    LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * write() method is the loop of the writer thread, it prints the lines in batches
+     */
+    private static void write() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(LINES.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            LINES.drainTo(batch);
+            long lost;
+            synchronized (LOCK) {
+                lost = dropped;
+                dropped = 0;
+            }
+            if (lost > 0) {
+                System.out.println("(" + lost + " console lines dropped)");
+            }
+            for (String line : batch) {
+                System.out.println(line);
+            }
+            System.out.flush();
+            synchronized (LOCK) {
+                done += batch.size();
+                LOCK.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+}
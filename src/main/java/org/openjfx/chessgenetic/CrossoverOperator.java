@@ -0,0 +1,27 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This interface is a crossover scheme.
+ * It works on genome arrays only (see {@link Population}): two parents in, two children out.
+ * Every implementation keeps the constraints of the board: each half of a child holds exactly the pieces
+ * of the same half of its parents (5 white pieces in the top half, 5 black pieces in the bottom half),
+ * so every child is a valid candidate and no repair is needed.
+ * Implementations may keep buffers between calls, so an instance must not be shared between threads.
+ * @see CrossoverType
+ */
+public interface CrossoverOperator {
+
+    /**
+     * cross() method writes the two children of two parents
+     * @param parents the genome array of the parents
+     * @param parent1 the offset of the first parent
+     * @param parent2 the offset of the second parent
+     * @param children the genome array of the children (not the parents array)
+     * @param child1 the offset of the first child
+     * @param child2 the offset of the second child
+     * @param random the random generator
+     */
+    void cross(byte[] parents, int parent1, int parent2, byte[] children, int child1, int child2, RandomGenerator random);
+}
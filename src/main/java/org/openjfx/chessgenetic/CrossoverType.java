@@ -0,0 +1,37 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * The crossover operators that can be chosen from the UI or the command line.
+ */
+public enum CrossoverType {
+    HALF_SWAP("Half swap"),
+    PMX("Partially mapped (PMX)"),
+    ORDER("Order (OX)"),
+    CYCLE("Cycle (CX)"),
+    UNIFORM_SWAP("Uniform swap");
+
+    private final String label;
+
+    CrossoverType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * create() method builds a new operator of this type
+     * @return the operator
+     */
+    public CrossoverOperator create() {
+        return switch (this) {
+            case HALF_SWAP -> new HalfSwapCrossover();
+            case PMX -> new PmxCrossover();
+            case ORDER -> new OrderCrossover();
+            case CYCLE -> new CycleCrossover();
+            case UNIFORM_SWAP -> new UniformSwapCrossover();
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,35 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the cycle crossover (CX), on each half of the board.
+ * The squares are split into cycles (a square leads to the square where the first parent has the label
+ * the second parent has on it), the children take their labels from the two parents one cycle after the other,
+ * so every label stays on a square it had in one of the parents. It draws no random number.
+ * @see <a href="https://en.wikipedia.org/wiki/Crossover_(genetic_algorithm)#Cycle_crossover_(CX)">CX</a>
+ */
+public final class CycleCrossover extends PermutationCrossover {
+    private final boolean[] visited = new boolean[HALF];
+
+    @Override
+    void crossHalf(int[] parent1, int[] parent2, int[] child1, int[] child2, RandomGenerator random) {
+        Arrays.fill(visited, false);
+        boolean swapped = false;
+        for (int start = 0; start < HALF; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            // Walk one cycle, every other cycle is taken from the other parent
+            int square = start;
+            do {
+                visited[square] = true;
+                child1[square] = swapped ? parent2[square] : parent1[square];
+                child2[square] = swapped ? parent1[square] : parent2[square];
+                square = position1[parent2[square]];
+            } while (square != start);
+            swapped = !swapped;
+        }
+    }
+}
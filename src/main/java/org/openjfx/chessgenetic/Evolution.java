@@ -0,0 +1,37 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This interface is a genetic algorithm run that can be driven from a background thread:
+ * one {@link EvolutionEngine}, or several of them in an {@link IslandModel} (the standard problem),
+ * or a {@link PlacementEngine} (any other {@link ProblemDefinition}).
+ * It can be paused, resumed and cancelled from any other thread.
+ * @see EvolutionTask
+ */
+public interface Evolution {
+
+    /**
+     * run() method runs the genetic algorithm on the calling thread
+     * @param listener notified once per generation, may be null
+     * @return the ultimate solution, null if the run was cancelled before it had one
+     */
+    Solution run(EvolutionListener listener);
+
+    /**
+     * pause() method suspends the run at the start of the next generation
+     */
+    void pause();
+
+    /**
+     * resume() method wakes a paused run up
+     */
+    void resume();
+
+    /**
+     * cancel() method stops the run at the start of the next generation, even if it is paused
+     */
+    void cancel();
+
+    boolean isPaused();
+
+    boolean isCancelled();
+}
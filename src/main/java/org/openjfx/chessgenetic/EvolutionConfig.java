@@ -0,0 +1,471 @@
+package org.openjfx.chessgenetic;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class holds the parameters of one evolution run.
+ * It is filled from the UI (or the command line) and read once by the {@link EvolutionEngine}
+ * (or the {@link PlacementEngine} for the problems other than the standard one) when the run starts.
+ */
+public class EvolutionConfig implements Cloneable {
+
+    /**
+     * How the offspring replace the population.
+     */
+    public enum ReplacementMode {
+        /** The whole population is replaced every generation (except the elite) */
+        GENERATIONAL,
+        /** Only the worst individuals are replaced, one step per generation */
+        STEADY_STATE
+    }
+
+    /**
+     * What is done when the diversity of the population collapses without progress.
+     */
+    public enum StagnationResponse {
+        /** Nothing, the run goes on */
+        NONE,
+        /** The worst part of the population is replaced by new random boards */
+        RESEED,
+        /** Every board but the elite gets several random swaps */
+        HYPERMUTATION,
+        /** Every board but the elite is replaced by a new random board */
+        RESTART
+    }
+
+    private ProblemDefinition problem = ProblemDefinition.STANDARD; // The board size and the pieces
+    private int populationSize = 100;           // The population size
+    private int maxGenerations = 1000;          // The maximum number of generations
+    private double targetFitness = 1.0;         // The fitness at which the run stops
+    private FitnessFunction.PenaltyMode penaltyMode = FitnessFunction.PenaltyMode.PER_PIECE; // How line penalties are scored
+    private long seed = ThreadLocalRandom.current().nextLong(); // The seed of every random generator of the run
+    private int threads = Runtime.getRuntime().availableProcessors(); // The number of worker threads
+    private SelectionType selectionType = SelectionType.ROULETTE; // The parent selection strategy
+    private int tournamentSize = 3;             // The individuals per tournament (TOURNAMENT)
+    private double rankPressure = 1.5;          // The weight of the best rank, in [1, 2] (LINEAR_RANK)
+    private double truncationFraction = 0.5;    // The part of the population that can be picked (TRUNCATION)
+    private CrossoverType crossoverType = CrossoverType.HALF_SWAP; // The crossover operator
+    private double crossoverProbability = 0.8;  // The probability that a pair is crossed (otherwise copied)
+    private double mutationProbability = ChessMatrix.MUTATION_PROBABILITY; // The probability that a child is mutated
+    private boolean adaptiveOperators = false;  // Adapt the mutation probability and the operator mix (see AdaptiveOperators)
+    private int eliteCount = 0;                 // The best individuals carried over untouched every generation
+    private ReplacementMode replacementMode = ReplacementMode.GENERATIONAL; // How the offspring replace the population
+    private int steadyStateReplacements = 2;    // The individuals replaced per step (STEADY_STATE)
+    private int fitnessCacheSize = 0;           // The entries of the fitness cache, 0 for no cache
+    private boolean deduplicate = false;        // Replace the boards whose symmetry class is already in the population
+    private int localSearchIndividuals = 0;     // The best children climbed every generation (memetic mode), 0 for none
+    private int localSearchEvaluations = 2000;  // The moves the local search may score per generation
+    private int localSearchMillis = 0;          // The time the local search may take per generation, 0 for no limit
+    private StagnationResponse stagnationResponse = StagnationResponse.NONE; // What is done when the diversity collapses
+    private double minDistance = 2.0;           // The mean Hamming distance (squares) under which the diversity has collapsed
+    private int stagnationGenerations = 50;     // The generations without progress (or since the last response) before a response
+    private double reseedFraction = 0.5;        // The part of the population replaced by RESEED
+    private int islands = 1;                    // The subpopulations of an island model, 1 for one population
+    private int migrationInterval = 10;         // The generations between two migrations, 0 for none
+    private int migrationSize = 2;              // The individuals sent by an island per migration
+    private IslandModel.Topology migrationTopology = IslandModel.Topology.RING; // Where the migrants go
+    private Path checkpointFile = null;         // Where the checkpoints are written, null for none
+    private int checkpointInterval = 1000;      // The generations between two checkpoints, 0 for the last one only
+    private boolean resume = false;             // Start from the checkpoint file if it exists
+    private boolean instrumentation = false;    // Measure the phases of every generation (see GenerationMetrics)
+    private boolean consoleLogging = true;      // Print the progress of the run on the console
+
+    /**
+     * validate() method checks the parameters before a run
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public void validate() {
+        if (problem == null) {
+            throw new IllegalArgumentException("Problem is required");
+        }
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("Population size must be at least 2");
+        }
+        if (maxGenerations < 0) {
+            throw new IllegalArgumentException("Max generations must not be negative");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1");
+        }
+        if (selectionType == null) {
+            throw new IllegalArgumentException("Selection type is required");
+        }
+        if (crossoverType == null) {
+            throw new IllegalArgumentException("Crossover type is required");
+        }
+        if (crossoverProbability < 0 || crossoverProbability > 1) {
+            throw new IllegalArgumentException("Crossover probability must be in [0, 1]");
+        }
+        if (mutationProbability < 0 || mutationProbability > 1) {
+            throw new IllegalArgumentException("Mutation probability must be in [0, 1]");
+        }
+        if (eliteCount < 0 || eliteCount > populationSize - 2) {
+            throw new IllegalArgumentException("Elite count must be in [0, population size - 2]");
+        }
+        if (replacementMode == null) {
+            throw new IllegalArgumentException("Replacement mode is required");
+        }
+        if (replacementMode == ReplacementMode.STEADY_STATE
+                && (steadyStateReplacements < 1 || steadyStateReplacements > populationSize - Math.max(eliteCount, 1))) {
+            throw new IllegalArgumentException("Steady state replacements must be in [1, population size - max(elite count, 1)]");
+        }
+        if (fitnessCacheSize != 0 && (fitnessCacheSize < 4 || fitnessCacheSize > 1 << 30)) {
+            throw new IllegalArgumentException("Fitness cache size must be 0 or in [4, 2^30]");
+        }
+        if (localSearchIndividuals < 0 || localSearchIndividuals > populationSize) {
+            throw new IllegalArgumentException("Local search individuals must be in [0, population size]");
+        }
+        if (localSearchEvaluations < 1) {
+            throw new IllegalArgumentException("Local search evaluations must be at least 1");
+        }
+        if (localSearchMillis < 0) {
+            throw new IllegalArgumentException("Local search millis must not be negative");
+        }
+        if (stagnationResponse == null) {
+            throw new IllegalArgumentException("Stagnation response is required");
+        }
+        if (minDistance < 0) {
+            throw new IllegalArgumentException("Min distance must not be negative");
+        }
+        if (stagnationGenerations < 1) {
+            throw new IllegalArgumentException("Stagnation generations must be at least 1");
+        }
+        if (reseedFraction <= 0 || reseedFraction > 1) {
+            throw new IllegalArgumentException("Reseed fraction must be in (0, 1]");
+        }
+        if (islands < 1 || populationSize / islands < 2) {
+            throw new IllegalArgumentException("Islands must be at least 1, with 2 individuals per island");
+        }
+        if (migrationInterval < 0) {
+            throw new IllegalArgumentException("Migration interval must not be negative");
+        }
+        if (islands > 1 && (migrationSize < 1 || migrationSize > populationSize / islands - 1)) {
+            throw new IllegalArgumentException("Migration size must be in [1, island size - 1]");
+        }
+        if (migrationTopology == null) {
+            throw new IllegalArgumentException("Migration topology is required");
+        }
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative");
+        }
+        if (checkpointFile != null && islands > 1) {
+            throw new IllegalArgumentException("Checkpoints are not supported with islands");
+        }
+        if (resume && checkpointFile == null) {
+            throw new IllegalArgumentException("Resume needs a checkpoint file");
+        }
+        if (!problem.isStandard() && (islands > 1 || checkpointFile != null || deduplicate || fitnessCacheSize > 0
+                || localSearchIndividuals > 0 || adaptiveOperators || stagnationResponse != StagnationResponse.NONE
+                || replacementMode != ReplacementMode.GENERATIONAL || crossoverType != CrossoverType.HALF_SWAP)) {
+            throw new IllegalArgumentException("Problem " + problem + " only supports the generational replacement"
+                    + " and the half swap crossover, without islands, checkpoints, deduplication, fitness cache, local search, adaptive operators or stagnation response");
+        }
+        // The strategy constructors check their own parameters
+        selectionType.create(this);
+    }
+
+    /**
+     * copy() method copies the config (the island model gives one to each island)
+     * @return the copy
+     */
+    public EvolutionConfig copy() {
+        try {
+            return (EvolutionConfig) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * getters and setters
+     */
+
+    public ProblemDefinition getProblem() {
+        return problem;
+    }
+
+    public void setProblem(ProblemDefinition problem) {
+        this.problem = problem;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public void setPopulationSize(int populationSize) {
+        this.populationSize = populationSize;
+    }
+
+    public int getMaxGenerations() {
+        return maxGenerations;
+    }
+
+    public void setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    public double getTargetFitness() {
+        return targetFitness;
+    }
+
+    public void setTargetFitness(double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    public FitnessFunction.PenaltyMode getPenaltyMode() {
+        return penaltyMode;
+    }
+
+    public void setPenaltyMode(FitnessFunction.PenaltyMode penaltyMode) {
+        this.penaltyMode = penaltyMode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public SelectionType getSelectionType() {
+        return selectionType;
+    }
+
+    public void setSelectionType(SelectionType selectionType) {
+        this.selectionType = selectionType;
+    }
+
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    public void setTournamentSize(int tournamentSize) {
+        this.tournamentSize = tournamentSize;
+    }
+
+    public double getRankPressure() {
+        return rankPressure;
+    }
+
+    public void setRankPressure(double rankPressure) {
+        this.rankPressure = rankPressure;
+    }
+
+    public double getTruncationFraction() {
+        return truncationFraction;
+    }
+
+    public void setTruncationFraction(double truncationFraction) {
+        this.truncationFraction = truncationFraction;
+    }
+
+    public CrossoverType getCrossoverType() {
+        return crossoverType;
+    }
+
+    public void setCrossoverType(CrossoverType crossoverType) {
+        this.crossoverType = crossoverType;
+    }
+
+    public double getCrossoverProbability() {
+        return crossoverProbability;
+    }
+
+    public void setCrossoverProbability(double crossoverProbability) {
+        this.crossoverProbability = crossoverProbability;
+    }
+
+    public double getMutationProbability() {
+        return mutationProbability;
+    }
+
+    public void setMutationProbability(double mutationProbability) {
+        this.mutationProbability = mutationProbability;
+    }
+
+    public boolean isAdaptiveOperators() {
+        return adaptiveOperators;
+    }
+
+    public void setAdaptiveOperators(boolean adaptiveOperators) {
+        this.adaptiveOperators = adaptiveOperators;
+    }
+
+    public int getEliteCount() {
+        return eliteCount;
+    }
+
+    public void setEliteCount(int eliteCount) {
+        this.eliteCount = eliteCount;
+    }
+
+    public ReplacementMode getReplacementMode() {
+        return replacementMode;
+    }
+
+    public void setReplacementMode(ReplacementMode replacementMode) {
+        this.replacementMode = replacementMode;
+    }
+
+    public int getSteadyStateReplacements() {
+        return steadyStateReplacements;
+    }
+
+    public void setSteadyStateReplacements(int steadyStateReplacements) {
+        this.steadyStateReplacements = steadyStateReplacements;
+    }
+
+    public int getFitnessCacheSize() {
+        return fitnessCacheSize;
+    }
+
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        this.fitnessCacheSize = fitnessCacheSize;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    public int getLocalSearchIndividuals() {
+        return localSearchIndividuals;
+    }
+
+    public void setLocalSearchIndividuals(int localSearchIndividuals) {
+        this.localSearchIndividuals = localSearchIndividuals;
+    }
+
+    public int getLocalSearchEvaluations() {
+        return localSearchEvaluations;
+    }
+
+    public void setLocalSearchEvaluations(int localSearchEvaluations) {
+        this.localSearchEvaluations = localSearchEvaluations;
+    }
+
+    public int getLocalSearchMillis() {
+        return localSearchMillis;
+    }
+
+    public void setLocalSearchMillis(int localSearchMillis) {
+        this.localSearchMillis = localSearchMillis;
+    }
+
+    public StagnationResponse getStagnationResponse() {
+        return stagnationResponse;
+    }
+
+    public void setStagnationResponse(StagnationResponse stagnationResponse) {
+        this.stagnationResponse = stagnationResponse;
+    }
+
+    public double getMinDistance() {
+        return minDistance;
+    }
+
+    public void setMinDistance(double minDistance) {
+        this.minDistance = minDistance;
+    }
+
+    public int getStagnationGenerations() {
+        return stagnationGenerations;
+    }
+
+    public void setStagnationGenerations(int stagnationGenerations) {
+        this.stagnationGenerations = stagnationGenerations;
+    }
+
+    public double getReseedFraction() {
+        return reseedFraction;
+    }
+
+    public void setReseedFraction(double reseedFraction) {
+        this.reseedFraction = reseedFraction;
+    }
+
+    public int getIslands() {
+        return islands;
+    }
+
+    public void setIslands(int islands) {
+        this.islands = islands;
+    }
+
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    public void setMigrationInterval(int migrationInterval) {
+        this.migrationInterval = migrationInterval;
+    }
+
+    public int getMigrationSize() {
+        return migrationSize;
+    }
+
+    public void setMigrationSize(int migrationSize) {
+        this.migrationSize = migrationSize;
+    }
+
+    public IslandModel.Topology getMigrationTopology() {
+        return migrationTopology;
+    }
+
+    public void setMigrationTopology(IslandModel.Topology migrationTopology) {
+        this.migrationTopology = migrationTopology;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public boolean isInstrumentation() {
+        return instrumentation;
+    }
+
+    public void setInstrumentation(boolean instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    public boolean isConsoleLogging() {
+        return consoleLogging;
+    }
+
+    public void setConsoleLogging(boolean consoleLogging) {
+        this.consoleLogging = consoleLogging;
+    }
+}
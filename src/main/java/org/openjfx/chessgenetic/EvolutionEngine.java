@@ -0,0 +1,848 @@
+package org.openjfx.chessgenetic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class runs the genetic algorithm (selection, crossover, mutation) on its own.
+ * It has no dependency on JavaFX so it can be driven from a background thread,
+ * it can be paused, resumed and cancelled from any other thread.
+ * The initial population and the offspring are built in parallel, in chunks that each have their own
+ * random generator (see {@link RandomStreams}), so a seeded run gives the same result with any number of threads.
+ * The population is stored in two preallocated {@link Population} buffers: the offspring of a generation are written
+ * into the second one while the first one is read, then the two are swapped, so no board is allocated per generation.
+ * The best individuals can be carried over untouched (elitism), and in steady state mode a generation only
+ * replaces the worst few individuals, so only the new children are scored.
+ * The mutation probability and the crossover operator of every pair can adapt to the feedback of every generation
+ * (see {@link AdaptiveOperators}).
+ * In memetic mode, the best children of every generation are improved by a min-conflicts hill climb
+ * (see {@link ChessMatrix#climb(int, int, RandomGenerator)}), within an evaluation (and optionally a time) budget per generation.
+ * The diversity of every generation is measured (distinct symmetry classes, sampled Hamming distance, see {@link Population})
+ * and when it collapses without progress the population can be partly reseeded, hypermutated or restarted around its elite.
+ * With deduplication, the boards whose symmetry class (see {@link Symmetry}) is already in the population
+ * are replaced by new random boards after every generation.
+ * With a checkpoint file, the state of the run is saved every few generations and at the end (see {@link Checkpoint}),
+ * and a run can resume from it.
+ * With instrumentation on (or while a {@link GenerationEvent} is recorded), the phases of every generation are measured
+ * (see {@link GenerationMetrics}). The progress lines are printed from another thread (see {@link ConsoleLog}).
+ * @see EvolutionTask
+ * @see <a href="https://en.wikipedia.org/wiki/Genetic_algorithm">Genetic Algorithm</a>
+ */
+public class EvolutionEngine extends AbstractEngine<ChessMatrix> {
+    private static final int MAX_CLIMB_STEPS = 10;   // The moves of one hill climb, two per piece
+    private static final int DISTANCE_SAMPLES = 256;  // The pairs compared to estimate the distance of a generation
+    private static final int HYPERMUTATION_SWAPS = 5; // The swaps of a hypermutated board
+
+    // The results counted per chunk for the adaptive operators
+    private static final int BEAT_PARENTS = 0;       // The children better than both of their parents
+    private static final int MUTATIONS = 1;          // The children mutated
+    private static final int IMPROVING_MUTATIONS = 2; // The mutations that lowered the conflicts
+    private static final int FEEDBACK_SIZE = 3;
+
+    private final int populationSize;           // The population size
+    private final int maxGenerations;           // The maximum number of generations
+    private final double targetFitness;         // The fitness at which the run stops
+    private final FitnessFunction fitnessFunction; // The fitness function of every board
+    private final FitnessCache fitnessCache;    // The conflicts of the boards already scored, null if disabled
+    private final RandomStreams randomStreams;  // The random generators of the run
+    private final SelectionStrategy selection;  // The parent selection strategy
+    private final CrossoverType crossoverType;  // The crossover operator, one instance per chunk
+    private final double crossoverProbability;  // The probability that a pair is crossed (otherwise copied)
+    private final double mutationProbability;   // The probability that a child is mutated
+    private final AdaptiveOperators adaptiveOperators; // Adapts the mutation and the operator mix, null if they are fixed
+    private final int eliteCount;               // The best individuals carried over untouched
+    private final EvolutionConfig.ReplacementMode replacementMode; // Generational or steady state
+    private final int steadyStateReplacements;  // The individuals replaced per steady state step
+    private final int localSearchIndividuals;   // The best individuals climbed every generation, 0 for none
+    private final int localSearchEvaluations;   // The moves the local search may score per generation
+    private final long localSearchNanos;        // The time the local search may take per generation, 0 for no limit
+    private final boolean deduplicate;          // Replace the duplicated symmetry classes every generation
+    private final EvolutionConfig.StagnationResponse stagnationResponse; // What is done when the diversity collapses
+    private final double minDistance;           // The distance under which the diversity has collapsed
+    private final int stagnationGenerations;    // The generations without progress before a response
+    private final double reseedFraction;        // The part of the population replaced by RESEED
+    private int lastImprovement;                // The generation of the last ultimate improvement (or response)
+    private int stagnationResponses;            // The number of responses of the run
+    private final LongHashSet seenClasses = new LongHashSet(); // The canonical hashes met by deduplicate() and the diversity
+    private final Path checkpointFile;          // Where the checkpoints are written, null for none
+    private final int checkpointInterval;       // The generations between two checkpoints, 0 for the last one only
+    private final boolean resume;               // Start from the checkpoint file if it exists
+    private CheckpointWriter checkpoints;       // Writes the checkpoints during a run, null without a checkpoint file
+    private Migration migration;                // Called at the end of every generation, null outside an island model
+    private final boolean instrumentation;      // Measure the phases of every generation
+    private int[] selectedBuffer = new int[0];  // The indexes picked by the selection
+    private int[] replacedBuffer = new int[0];  // The indexes of the elite or of the replaced individuals
+
+    private Population population;              // The current population
+    private Population offspring;               // The next population, written while the current one is read
+    private ChessMatrix ultimateSolution;       // The ultimate solution found
+    private int generationCount;                // The current generation count
+
+    public EvolutionEngine(int populationSize, int maxGenerations, double targetFitness) {
+        this(configOf(populationSize, maxGenerations, targetFitness));
+    }
+
+    public EvolutionEngine(EvolutionConfig config) {
+        super(config);
+        if (!config.getProblem().isStandard()) {
+            throw new IllegalArgumentException("Problem " + config.getProblem() + " runs on a PlacementEngine");
+        }
+        this.populationSize = config.getPopulationSize();
+        this.maxGenerations = config.getMaxGenerations();
+        this.targetFitness = config.getTargetFitness();
+        this.fitnessFunction = new FitnessFunction(config.getPenaltyMode());
+        this.fitnessCache = config.getFitnessCacheSize() > 0 ? new FitnessCache(config.getFitnessCacheSize()) : null;
+        this.randomStreams = new RandomStreams(config.getSeed());
+        this.selection = config.getSelectionType().create(config);
+        this.crossoverType = config.getCrossoverType();
+        this.crossoverProbability = config.getCrossoverProbability();
+        this.mutationProbability = config.getMutationProbability();
+        this.adaptiveOperators = config.isAdaptiveOperators() ? new AdaptiveOperators(mutationProbability) : null;
+        this.eliteCount = config.getEliteCount();
+        this.replacementMode = config.getReplacementMode();
+        this.steadyStateReplacements = config.getSteadyStateReplacements();
+        this.localSearchIndividuals = config.getLocalSearchIndividuals();
+        this.localSearchEvaluations = config.getLocalSearchEvaluations();
+        this.localSearchNanos = config.getLocalSearchMillis() * 1_000_000L;
+        this.deduplicate = config.isDeduplicate();
+        this.stagnationResponse = config.getStagnationResponse();
+        this.minDistance = config.getMinDistance();
+        this.stagnationGenerations = config.getStagnationGenerations();
+        this.reseedFraction = config.getReseedFraction();
+        this.checkpointFile = config.getCheckpointFile();
+        this.checkpointInterval = config.getCheckpointInterval();
+        this.resume = config.isResume();
+        this.instrumentation = config.isInstrumentation();
+    }
+
+    private static EvolutionConfig configOf(int populationSize, int maxGenerations, double targetFitness) {
+        EvolutionConfig config = new EvolutionConfig();
+        config.setPopulationSize(populationSize);
+        config.setMaxGenerations(maxGenerations);
+        config.setTargetFitness(targetFitness);
+        return config;
+    }
+
+    /**
+     *  Runs the genetic algorithm.
+     *  Steps:
+     *  1- Initialize generationCount and ultimateSolution
+     *  2- Generate pop size initial population (or load the population, the generation and the ultimate solution of the checkpoint)
+     *  3- Find initial best solution
+     *  4- Run evolution loop until we reach either the max gen, the target fitness or conflict = 0
+     *      4.1 Wait here while the run is paused, then start measuring the generation (if it is measured)
+     *      4.2 Find the best solution in current generation
+     *      4.3 Update ultimate solution if the current best solution is better than the ultimate solution
+     *      4.4 Publish the generation (with the statistics of the population) to the listener
+     *      4.5 Stagnation step: if the diversity collapsed without progress, reseed, hypermutate or restart the population
+     *      4.6 Selection step: Select parents for crossover
+     *      4.7 Crossover step: Create offspring from parent pairs
+     *      4.8 Mutation step: Mutate offspring (in our case it happens only to crossover offspring),
+     *          then adapt the mutation probability and the operator mix to the results (adaptive operators only)
+     *      4.9 Local search step: climb the best children of the generation (memetic mode only)
+     *      4.10 Replacement step: the offspring and the elite become the population (or replace its worst individuals)
+     *      4.11 Deduplication step: replace the boards whose symmetry class is already in the population
+     *      4.12 Migration step: exchange individuals with the other islands (island model only)
+     *      4.13 Checkpoint step: save the state of the run every checkpointInterval generations
+     *      4.14 Close the measures of the generation and record its event
+     *  5- Save the last checkpoint and publish the final snapshot
+     * @param listener notified once per generation, may be null
+     * @return the ultimate solution (the best one found before the run ended or was cancelled),
+     * null if it was cancelled before the initial population was ready
+     * @throws UncheckedIOException if the checkpoint to resume from can not be read
+     * @throws IllegalArgumentException if it is invalid or was written by another run
+     * (another seed or population size, with or without adaptive operators)
+     */
+    @Override
+    public ChessMatrix run(EvolutionListener listener) {
+        checkpoints = checkpointFile != null ? new CheckpointWriter(checkpointFile) : null;
+        try {
+            return super.run(listener);
+        } finally {
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+        }
+    }
+
+    @Override
+    ChessMatrix evolve(EvolutionListener listener) {
+        // 1- Initialize generationCount and ultimateSolution
+        generationCount = 0;
+        ultimateSolution = null;
+
+        // 2- Generate pop size initial population (or load the population, the generation and the ultimate solution of the checkpoint)
+        // one spare slot: with an odd number of children, the second child of the last pair is bred there and left out
+        population = new Population(populationSize + 1);
+        offspring = new Population(populationSize + 1);
+        if (resume && Files.exists(checkpointFile)) {
+            restore(readCheckpoint());
+        } else {
+            initialize();
+        }
+        if (cancelled) {
+            return null;
+        }
+
+        // Console display (Debugging)
+        log("Starting fast evolution with population size: " + populationSize + ", max generations: " + maxGenerations
+                + ", seed: " + randomStreams.getSeed() + ", threads: " + threads
+                + (generationCount > 0 ? ", resumed at generation: " + generationCount : ""));
+
+        // 3- Find initial best solution
+        int bestSolution = population.bestIndex();
+        if (ultimateSolution == null) {
+            ultimateSolution = population.toMatrix(bestSolution, fitnessFunction);
+            lastImprovement = generationCount;
+        }
+        double diversity = Double.NaN;
+        double distance = Double.NaN;
+
+        // 4- Run evolution loop until we reach either the max gen, the target fitness or conflict = 0
+        while (generationCount < maxGenerations && ultimateSolution.getConflicts() > 0
+                && ultimateSolution.getFitness() < targetFitness) {
+            // 4.1 Wait here while the run is paused, then start measuring the generation (if it is measured)
+            if (!awaitResume()) {
+                break;
+            }
+            GenerationEvent event = new GenerationEvent();
+            timed = instrumentation || event.isEnabled();
+            if (timed) {
+                event.begin();
+                metrics.begin();
+            }
+            long phaseStart = timed ? System.nanoTime() : 0;
+
+            // 4.2 Find the best solution in current generation
+            bestSolution = population.bestIndex();
+            int bestConflicts = population.getConflicts(bestSolution);
+
+            // 4.3 Update ultimate solution if the current best solution is better than the ultimate solution
+            if (bestConflicts < ultimateSolution.getConflicts()) {
+                log("New ultimate solution found: " + bestConflicts); // Console display (Debugging)
+                ultimateSolution = population.toMatrix(bestSolution, fitnessFunction);
+                lastImprovement = generationCount;
+            }
+            if (timed) {
+                metrics.add(GenerationMetrics.Phase.BEST_TRACKING, System.nanoTime() - phaseStart);
+            }
+
+            // Console display (Debugging)
+            log("Generation: " + generationCount + ", Best solution: " + bestConflicts);
+
+            // 4.4 Publish the generation (with the statistics of the population) to the listener
+            if (listener != null || stagnationResponse != EvolutionConfig.StagnationResponse.NONE) {
+                diversity = (double) population.distinctClasses(seenClasses) / population.getSize();
+                distance = population.sampledDistance(DISTANCE_SAMPLES,
+                        randomStreams.stream(generationCount, RandomStreams.DIVERSITY, 0));
+            }
+            if (listener != null) {
+                listener.onGeneration(GenerationSnapshot.of(generationCount, population, bestSolution, ultimateSolution,
+                        diversity, distance, false));
+            }
+
+            // 4.5 Stagnation step: if the diversity collapsed without progress, reseed, hypermutate or restart the population
+            if (stagnationResponse != EvolutionConfig.StagnationResponse.NONE && distance < minDistance
+                    && generationCount - lastImprovement >= stagnationGenerations) {
+                int replaced = respondToStagnation();
+                lastImprovement = generationCount;
+                if (timed) {
+                    metrics.addEvaluations(replaced);
+                }
+                log(String.format("Diversity collapsed (distance %.2f, diversity %.3f): %s on %d boards", distance,
+                        diversity, stagnationResponse, replaced)); // Console display (Debugging)
+            }
+
+            // 4.6 Selection step: Select parents for crossover
+            phaseStart = timed ? System.nanoTime() : 0;
+            RandomGenerator selectionRandom = randomStreams.stream(generationCount, RandomStreams.SELECTION, 0);
+            int children = replacementMode == EvolutionConfig.ReplacementMode.STEADY_STATE
+                    ? steadyStateReplacements
+                    : populationSize - eliteCount;
+            int numPairs = selectParents(population, (children + 1) / 2, selectionRandom);
+            if (timed) {
+                metrics.add(GenerationMetrics.Phase.SELECTION, System.nanoTime() - phaseStart);
+            }
+
+            // 4.7 Crossover step: Create offspring from parent pairs
+            // 4.8 Mutation step: Mutate offspring (in our case it happens only to crossover offspring)
+            crossOver(population, selectedBuffer, numPairs, offspring);
+            offspring.setSize(Math.min(offspring.getSize(), children));
+            if (adaptiveOperators != null) {
+                adaptiveOperators.adapt();
+            }
+
+            // 4.9 Local search step: climb the best children of the generation (memetic mode only)
+            if (localSearchIndividuals > 0) {
+                phaseStart = timed ? System.nanoTime() : 0;
+                int evaluations = localSearch();
+                if (timed) {
+                    metrics.add(GenerationMetrics.Phase.LOCAL_SEARCH, System.nanoTime() - phaseStart);
+                    metrics.addEvaluations(evaluations);
+                }
+            }
+
+            // 4.10 Replacement step: the offspring and the elite become the population (or replace its worst individuals)
+            if (replacementMode == EvolutionConfig.ReplacementMode.STEADY_STATE) {
+                replaceWorst(offspring.getSize());
+            } else {
+                carryElite();
+                Population parents = population;
+                population = offspring;
+                offspring = parents;
+            }
+
+            // 4.11 Deduplication step: replace the boards whose symmetry class is already in the population
+            if (deduplicate) {
+                int replaced = deduplicate();
+                if (timed) {
+                    metrics.addEvaluations(replaced);
+                }
+                if (replaced > 0) {
+                    log("Replaced " + replaced + " duplicated boards"); // Console display (Debugging)
+                }
+            }
+
+            // 4.12 Migration step: exchange individuals with the other islands (island model only)
+            if (migration != null) {
+                migration.migrate(generationCount, population);
+            }
+
+            // Increment generation count
+            generationCount++;
+
+            // 4.13 Checkpoint step: save the state of the run every checkpointInterval generations
+            if (checkpoints != null && checkpointInterval > 0 && generationCount % checkpointInterval == 0
+                    && !checkpoints.write(randomStreams.getSeed(), generationCount, populationSize, ultimateSolution,
+                    population, lastImprovement, stagnationResponses, adaptiveOperators, false)) {
+                log("Checkpoint skipped, the previous one is still being written"); // Console display (Debugging)
+            }
+
+            // 4.14 Close the measures of the generation and record its event
+            if (timed) {
+                metrics.end();
+                if (event.shouldCommit()) {
+                    commit(event, bestConflicts);
+                }
+            }
+        }
+
+        // Evolution complete - display final solution
+        log("Evolution complete after " + generationCount + " generations");
+        log("Ultimate solution has " + ultimateSolution.getConflicts() + " conflicts");
+        if (fitnessCache != null) {
+            log(String.format("Fitness cache: %d hits, %d misses (%.1f%%), %d evictions", fitnessCache.getHits(),
+                    fitnessCache.getMisses(), 100 * fitnessCache.getHitRate(), fitnessCache.getEvictions()));
+        }
+        if (adaptiveOperators != null) {
+            StringBuilder mix = new StringBuilder();
+            for (CrossoverType type : adaptiveOperators.getOperators()) {
+                mix.append(String.format(" %s %.0f%%", type.name(), 100 * adaptiveOperators.getShare(type)));
+            }
+            log(String.format("Adaptive operators: mutation probability %.3f (success %.1f%%), operator mix:%s",
+                    adaptiveOperators.getMutationProbability(), 100 * adaptiveOperators.getMutationSuccess(), mix));
+        }
+        if (instrumentation && metrics.getGenerations() > 0) {
+            log(String.format("Phases: selection %d ms, crossover %d ms, mutation %d ms, evaluation %d ms, best tracking %d ms,"
+                            + " local search %d ms",
+                    metrics.getTotalNanos(GenerationMetrics.Phase.SELECTION) / 1_000_000,
+                    metrics.getTotalNanos(GenerationMetrics.Phase.CROSSOVER) / 1_000_000,
+                    metrics.getTotalNanos(GenerationMetrics.Phase.MUTATION) / 1_000_000,
+                    metrics.getTotalNanos(GenerationMetrics.Phase.EVALUATION) / 1_000_000,
+                    metrics.getTotalNanos(GenerationMetrics.Phase.BEST_TRACKING) / 1_000_000,
+                    metrics.getTotalNanos(GenerationMetrics.Phase.LOCAL_SEARCH) / 1_000_000));
+            log(String.format("%.0f evaluations/s, %d bytes allocated per generation",
+                    metrics.getAverageEvaluationsPerSecond(), metrics.getAverageAllocatedBytes()));
+        }
+        if (consoleLogging) {
+            for (String conflict : ultimateSolution.explainConflicts()) {
+                log("  " + conflict);
+            }
+        }
+
+        // 5- Save the last checkpoint and publish the final snapshot
+        if (checkpoints != null) {
+            checkpoints.write(randomStreams.getSeed(), generationCount, populationSize, ultimateSolution, population,
+                    lastImprovement, stagnationResponses, adaptiveOperators, true);
+            log("Checkpoints: " + checkpoints.getWritten() + " written, " + checkpoints.getSkipped() + " skipped");
+        }
+        if (listener != null) {
+            listener.onGeneration(GenerationSnapshot.of(generationCount, ultimateSolution, ultimateSolution, true));
+        }
+
+        return ultimateSolution;
+    }
+
+    /**
+     * commit() method records the JFR event of the generation that just ended
+     * @param event the event, begun with the generation
+     * @param bestConflicts the conflicts of the best individual of the generation
+     */
+    private void commit(GenerationEvent event, int bestConflicts) {
+        event.generation = generationCount - 1;
+        event.bestConflicts = bestConflicts;
+        event.selection = metrics.getNanos(GenerationMetrics.Phase.SELECTION);
+        event.crossover = metrics.getNanos(GenerationMetrics.Phase.CROSSOVER);
+        event.mutation = metrics.getNanos(GenerationMetrics.Phase.MUTATION);
+        event.evaluation = metrics.getNanos(GenerationMetrics.Phase.EVALUATION);
+        event.bestTracking = metrics.getNanos(GenerationMetrics.Phase.BEST_TRACKING);
+        event.localSearch = metrics.getNanos(GenerationMetrics.Phase.LOCAL_SEARCH);
+        event.mutationProbability = adaptiveOperators != null ? adaptiveOperators.getMutationProbability() : mutationProbability;
+        event.mutationSuccess = adaptiveOperators != null ? adaptiveOperators.getMutationSuccess() : Double.NaN;
+        event.evaluations = metrics.getEvaluations();
+        event.evaluationsPerSecond = metrics.getEvaluationsPerSecond();
+        event.allocated = metrics.getAllocatedBytes();
+        event.commit();
+    }
+
+    /**
+     * initialize() method generates the random initial population, in parallel chunks
+     */
+    private void initialize() {
+        population.setSize(populationSize);
+        Population initial = population;
+        forEachChunk(populationSize, chunk -> {
+            RandomGenerator random = randomStreams.stream(0, RandomStreams.INITIALIZATION, chunk);
+            ChessMatrix cursor = newCursor();
+            int end = Math.min(populationSize, (chunk + 1) * RandomStreams.CHUNK_SIZE);
+            for (int i = chunk * RandomStreams.CHUNK_SIZE; i < end && !cancelled; i++) {
+                cursor.randomize(random);
+                initial.store(i, cursor);
+            }
+        });
+    }
+
+    /**
+     * readCheckpoint() method reads the checkpoint file and checks that it belongs to this run
+     * @return the checkpoint
+     */
+    private Checkpoint readCheckpoint() {
+        Checkpoint checkpoint;
+        try {
+            checkpoint = Checkpoint.read(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read the checkpoint " + checkpointFile, e);
+        }
+        if (checkpoint.getSeed() != randomStreams.getSeed() || checkpoint.getPopulationSize() != populationSize) {
+            throw new IllegalArgumentException("The checkpoint " + checkpointFile + " belongs to another run (seed "
+                    + checkpoint.getSeed() + ", population size " + checkpoint.getPopulationSize() + ")");
+        }
+        if (checkpoint.hasAdaptiveOperators() != (adaptiveOperators != null)) {
+            throw new IllegalArgumentException("The checkpoint " + checkpointFile + " belongs to another run ("
+                    + (checkpoint.hasAdaptiveOperators() ? "with" : "without") + " adaptive operators)");
+        }
+        return checkpoint;
+    }
+
+    /**
+     * restore() method starts the run from a checkpoint: its population (rescored), its generation, its ultimate solution
+     * its stagnation counters and the state of its adaptive operators
+     * @param checkpoint the checkpoint
+     */
+    private void restore(Checkpoint checkpoint) {
+        checkpoint.restore(population, newCursor());
+        generationCount = checkpoint.getGeneration();
+        ultimateSolution = checkpoint.getUltimate(fitnessFunction);
+        lastImprovement = checkpoint.getLastImprovement();
+        stagnationResponses = checkpoint.getStagnationResponses();
+        if (adaptiveOperators != null) {
+            checkpoint.restore(adaptiveOperators);
+        }
+    }
+
+    public int getGenerationCount() {
+        return generationCount;
+    }
+
+    /**
+     * getMetrics() method returns the measures of the run (only filled with instrumentation on or while JFR records)
+     * @return the metrics, read them on the engine thread or after the run
+     */
+    public GenerationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * getStagnationResponses() method returns how many times the stagnation response was applied
+     * @return the number of responses of the run
+     */
+    public int getStagnationResponses() {
+        return stagnationResponses;
+    }
+
+    /**
+     * getAdaptiveOperators() method returns the controller of the mutation probability and of the operator mix
+     * @return the controller, null if they are fixed; read it on the engine thread (the listener) or after the run
+     */
+    public AdaptiveOperators getAdaptiveOperators() {
+        return adaptiveOperators;
+    }
+
+    /**
+     * setMigration() method sets the migration step of an island (see IslandModel)
+     * @param migration called at the end of every generation, null for none
+     */
+    void setMigration(Migration migration) {
+        this.migration = migration;
+    }
+
+    /**
+     * getFitnessCache() method returns the fitness cache of the run, to read its hit and miss counters
+     * @return the cache, null if it is disabled
+     */
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    /**
+     * carryElite() method copies the eliteCount best individuals of the population after the children
+     * (they keep their conflicts, nothing is rescored)
+     */
+    private void carryElite() {
+        if (eliteCount == 0) {
+            return;
+        }
+        if (replacedBuffer.length < eliteCount) {
+            replacedBuffer = new int[eliteCount];
+        }
+        population.best(eliteCount, replacedBuffer);
+        int children = offspring.getSize();
+        offspring.setSize(children + eliteCount);
+        for (int i = 0; i < eliteCount; i++) {
+            offspring.copy(children + i, population, replacedBuffer[i]);
+        }
+    }
+
+    /**
+     * replaceWorst() method is the steady state replacement: the first children overwrite the worst individuals,
+     * the rest of the population (the elite included) is left untouched
+     * @param count the number of individuals replaced
+     */
+    private void replaceWorst(int count) {
+        if (replacedBuffer.length < count) {
+            replacedBuffer = new int[count];
+        }
+        population.worst(count, replacedBuffer);
+        for (int i = 0; i < count; i++) {
+            population.copy(replacedBuffer[i], offspring, i);
+        }
+    }
+
+    /**
+     * localSearch() method is the memetic step: the localSearchIndividuals best children of the generation
+     * are climbed one after the other (in index order) until the evaluation or the time budget of the generation runs out
+     * the elite and the older individuals are not climbed again, they already had their turn as children
+     * the evaluation budget alone keeps a seeded run reproducible, the time budget depends on the machine
+     * a climbed board that beats the ultimate solution becomes the ultimate solution right away
+     * (it may be the last generation, or the solution)
+     * @return the number of moves scored
+     */
+    private int localSearch() {
+        int count = Math.min(localSearchIndividuals, offspring.getSize());
+        if (replacedBuffer.length < count) {
+            replacedBuffer = new int[count];
+        }
+        offspring.best(count, replacedBuffer);
+        RandomGenerator random = randomStreams.stream(generationCount, RandomStreams.LOCAL_SEARCH, 0);
+        ChessMatrix cursor = newCursor();
+        long deadline = System.nanoTime() + localSearchNanos;
+        int budget = localSearchEvaluations;
+        for (int i = 0; i < count && budget > 0; i++) {
+            if (localSearchNanos > 0 && System.nanoTime() - deadline > 0) {
+                break;
+            }
+            offspring.load(replacedBuffer[i], cursor);
+            budget -= cursor.climb(MAX_CLIMB_STEPS, budget, random);
+            offspring.store(replacedBuffer[i], cursor);
+            if (cursor.getConflicts() < ultimateSolution.getConflicts()) {
+                log("New ultimate solution found by the local search: " + cursor.getConflicts()); // Console display (Debugging)
+                ultimateSolution = offspring.toMatrix(replacedBuffer[i], fitnessFunction);
+                lastImprovement = generationCount;
+            }
+        }
+        return localSearchEvaluations - budget;
+    }
+
+    /**
+     * respondToStagnation() method applies the stagnation response of the config, the elite (at least the best board) is kept:
+     * - RESEED: the worst part of the population (reseedFraction) is replaced by new random boards
+     * - HYPERMUTATION: every other board gets HYPERMUTATION_SWAPS random swaps
+     * - RESTART: every other board is replaced by a new random board
+     * @return the number of boards changed
+     */
+    private int respondToStagnation() {
+        int size = population.getSize();
+        int keep = Math.max(eliteCount, 1);
+        if (replacedBuffer.length < size) {
+            replacedBuffer = new int[size];
+        }
+        RandomGenerator random = randomStreams.stream(generationCount, RandomStreams.STAGNATION, 0);
+        ChessMatrix cursor = newCursor();
+        int changed = 0;
+        stagnationResponses++;
+
+        if (stagnationResponse == EvolutionConfig.StagnationResponse.RESEED) {
+            int count = Math.min((int) (size * reseedFraction), size - keep);
+            population.worst(count, replacedBuffer);
+            for (int i = 0; i < count; i++) {
+                cursor.randomize(random);
+                population.store(replacedBuffer[i], cursor);
+            }
+            return count;
+        }
+
+        // The kept boards come out in index order, every other board is changed
+        population.best(keep, replacedBuffer);
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (next < keep && replacedBuffer[next] == i) {
+                next++;
+                continue;
+            }
+            if (stagnationResponse == EvolutionConfig.StagnationResponse.HYPERMUTATION) {
+                population.load(i, cursor);
+                for (int swap = 0; swap < HYPERMUTATION_SWAPS; swap++) {
+                    cursor.mutate(random, 1.0);
+                }
+            } else {
+                cursor.randomize(random);
+            }
+            population.store(i, cursor);
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * deduplicate() method replaces every board whose symmetry class is already in the population by a new random board
+     * the first board of each class is kept (symmetric boards have the same conflicts, so no quality is lost)
+     * @return the number of boards replaced
+     */
+    private int deduplicate() {
+        int size = population.getSize();
+        seenClasses.clear(size);
+        RandomGenerator random = null;
+        ChessMatrix cursor = null;
+        int replaced = 0;
+        for (int i = 0; i < size; i++) {
+            if (seenClasses.add(population.getCanonicalHash(i))) {
+                continue;
+            }
+            if (cursor == null) {
+                random = randomStreams.stream(generationCount, RandomStreams.DEDUPLICATION, 0);
+                cursor = newCursor();
+            }
+            cursor.randomize(random);
+            seenClasses.add(cursor.getCanonicalHash());
+            population.store(i, cursor);
+            replaced++;
+        }
+        return replaced;
+    }
+
+    /**
+     * newCursor() method creates an empty board, used to score and mutate the individuals of a chunk one after the other
+     * it consults the fitness cache of the run (if any) before every scoring
+     * @return the board
+     */
+    private ChessMatrix newCursor() {
+        ChessMatrix cursor = new ChessMatrix(new byte[Population.GENOME_LENGTH], fitnessFunction);
+        cursor.setFitnessCache(fitnessCache);
+        return cursor;
+    }
+
+    /**
+     * Crossover step: Create offspring from parent pairs
+     * the mutation happens here, the pairs are processed in parallel chunks
+     * @see ChessMatrix
+     * @param parents the current population
+     * @param selected the parents of pair i are selected[2i] and selected[2i + 1]
+     * @param numPairs the number of pairs
+     * @param offSpring where the children are written (the children of pair i are at 2i and 2i + 1),
+     *                  it must not be the parents population
+     */
+    private void crossOver(Population parents, int[] selected, int numPairs, Population offSpring) {
+
+        // Console display (Debugging)
+        log("Starting Crossover");
+
+        offSpring.setSize(numPairs * 2);
+        int generation = generationCount;
+
+        // Loop through the parent pairs, one random generator, one operator and one cursor per chunk
+        // (and the time of each phase of the chunk, in a measured generation)
+        // with adaptive operators, the operator of every pair is drawn from the operator mix and the results are counted
+        boolean measured = timed;
+        AdaptiveOperators adaptive = adaptiveOperators;
+        double mutation = adaptive != null ? adaptive.getMutationProbability() : mutationProbability;
+        forEachChunk(numPairs, chunk -> {
+            RandomGenerator random = randomStreams.stream(generation, RandomStreams.CROSSOVER, chunk);
+            CrossoverOperator fixedOperator = adaptive == null ? crossoverType.create() : null;
+            CrossoverOperator[] operators = adaptive != null ? new CrossoverOperator[CrossoverType.values().length] : null;
+            long[] trials = adaptive != null ? new long[operators.length] : null;
+            long[] successes = adaptive != null ? new long[operators.length] : null;
+            long[] feedback = adaptive != null ? new long[FEEDBACK_SIZE] : null;
+            ChessMatrix cursor = newCursor();
+            long[] phases = measured ? new long[GenerationMetrics.Phase.values().length] : null;
+            int crossed = 0;
+            int end = Math.min(numPairs, (chunk + 1) * RandomStreams.CHUNK_SIZE);
+            for (int i = chunk * RandomStreams.CHUNK_SIZE; i < end; i++) {
+                CrossoverOperator operator = fixedOperator;
+                int arm = 0;
+                long beaten = 0;
+                if (adaptive != null) {
+                    arm = adaptive.pick(random);
+                    if (operators[arm] == null) {
+                        operators[arm] = CrossoverType.values()[arm].create();
+                    }
+                    operator = operators[arm];
+                    beaten = feedback[BEAT_PARENTS];
+                }
+                if (crossOverPair(parents, selected[2 * i], selected[2 * i + 1], random, operator, cursor, offSpring, 2 * i,
+                        mutation, feedback, phases)) {
+                    crossed++;
+                    if (adaptive != null) {
+                        trials[arm] += 2;
+                        successes[arm] += feedback[BEAT_PARENTS] - beaten;
+                    }
+                }
+            }
+            if (adaptive != null) {
+                adaptive.record(trials, successes, feedback[MUTATIONS], feedback[IMPROVING_MUTATIONS]);
+            }
+            if (measured) {
+                for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+                    metrics.add(phase, phases[phase.ordinal()]);
+                }
+                metrics.addEvaluations(2L * crossed);
+            }
+        });
+    }
+
+    /**
+     * crossOverPair() method creates the two children of one pair
+     * @param parents the current population
+     * @param first the index of the first parent
+     * @param second the index of the second parent
+     * @param random the random generator of the chunk
+     * @param operator the crossover operator of the pair
+     * @param cursor the board used to score and mutate the children
+     * @param offSpring the offspring population
+     * @param index where the first child goes, the second one goes right after it
+     * @param mutation the mutation probability of the generation
+     * @param feedback where the results are counted (see FEEDBACK_SIZE), null if they are not
+     * @param phases where the time of each phase is added (nanoseconds, by phase ordinal), null if not measured
+     * @return true if the parents were crossed (the two children have been scored)
+     */
+    private boolean crossOverPair(Population parents, int first, int second, RandomGenerator random,
+                                  CrossoverOperator operator, ChessMatrix cursor, Population offSpring, int index,
+                                  double mutation, long[] feedback, long[] phases) {
+        long start = phases != null ? System.nanoTime() : 0;
+
+        // Get random value for the crossover probability (80% by default)
+        if (random.nextDouble() <= crossoverProbability) {
+
+            // Crossover with the operator of the pair (every operator keeps the 5 + 5 pieces of each half)
+            // the children are written straight into their offspring slots
+            operator.cross(parents.getGenomes(), parents.offset(first), parents.offset(second),
+                    offSpring.getGenomes(), offSpring.offset(index), offSpring.offset(index + 1), random);
+            int parentConflicts = Math.min(parents.getConflicts(first), parents.getConflicts(second));
+
+            // Score and mutate children through the cursor
+            if (phases == null) {
+                for (int child = index; child <= index + 1; child++) {
+                    offSpring.load(child, cursor);
+                    int childConflicts = cursor.getConflicts();
+                    boolean mutated = cursor.mutate(random, mutation);
+                    offSpring.store(child, cursor);
+                    if (feedback != null) {
+                        count(feedback, parentConflicts, childConflicts, mutated, cursor.getConflicts());
+                    }
+                }
+                return true;
+            }
+            long crossed = System.nanoTime();
+            phases[GenerationMetrics.Phase.CROSSOVER.ordinal()] += crossed - start;
+            for (int child = index; child <= index + 1; child++) {
+                long loading = System.nanoTime();
+                offSpring.load(child, cursor);
+                int childConflicts = cursor.getConflicts();
+                long mutating = System.nanoTime();
+                boolean mutated = cursor.mutate(random, mutation);
+                long storing = System.nanoTime();
+                offSpring.store(child, cursor);
+                if (feedback != null) {
+                    count(feedback, parentConflicts, childConflicts, mutated, cursor.getConflicts());
+                }
+                long stored = System.nanoTime();
+                phases[GenerationMetrics.Phase.EVALUATION.ordinal()] += mutating - loading;
+                phases[GenerationMetrics.Phase.MUTATION.ordinal()] += storing - mutating;
+                phases[GenerationMetrics.Phase.CROSSOVER.ordinal()] += stored - storing;
+            }
+            return true;
+        }
+
+        // If the random value is greater than the crossover probability, copy the parents to the offspring
+        offSpring.copy(index, parents, first);
+        offSpring.copy(index + 1, parents, second);
+        if (phases != null) {
+            phases[GenerationMetrics.Phase.CROSSOVER.ordinal()] += System.nanoTime() - start;
+        }
+        return false;
+    }
+
+    /**
+     * count() method counts the results of one child for the adaptive operators
+     * @param feedback the counts of the chunk
+     * @param parentConflicts the conflicts of the better parent
+     * @param childConflicts the conflicts of the child after the crossover
+     * @param mutated true if the mutation changed the genome of the child (ChessMatrix.mutate() returns false otherwise)
+     * @param mutatedConflicts the conflicts of the child after the mutation
+     */
+    private static void count(long[] feedback, int parentConflicts, int childConflicts, boolean mutated,
+                              int mutatedConflicts) {
+        if (childConflicts < parentConflicts) {
+            feedback[BEAT_PARENTS]++;
+        }
+        if (mutated) {
+            feedback[MUTATIONS]++;
+            if (mutatedConflicts < childConflicts) {
+                feedback[IMPROVING_MUTATIONS]++;
+            }
+        }
+    }
+
+    /**
+     * Selects parent pairs with the selection strategy of the config.
+     * The default one is the roulette wheel without replacement: each parent is selected only once,
+     * and every pick is proportional to the fitness of the individuals left (see RouletteWheelSelection).
+     * The strategy reads the fitness array of the population directly, nothing is copied.
+     * With an odd population picked whole (without replacement), the last individual is paired with the first pick.
+     * @param population The current population
+     * @param numPairs The number of parent pairs to select
+     * @param random The random generator of the selection step
+     * @return the number of pairs selected, the parents of pair i are selectedBuffer[2i] and selectedBuffer[2i + 1]
+     */
+    private int selectParents(Population population, int numPairs, RandomGenerator random) {
+        // Ensure we have enough individuals to form the pairs (the last one may miss its second parent)
+        int size = population.getSize();
+        numPairs = Math.min(numPairs, (size + 1) / 2);
+        int picks = Math.min(numPairs * 2, size);
+
+        // Reuse the primitive buffer of the picks
+        if (selectedBuffer.length < size + 1) {
+            selectedBuffer = new int[size + 1];
+        }
+
+        // Pick 2 parents per pair, consecutive picks form a pair
+        selection.select(population.getFitnessArray(), size, selectedBuffer, picks, random);
+        if (picks < numPairs * 2) {
+            selectedBuffer[picks] = selectedBuffer[0];
+        }
+
+        return numPairs;
+    }
+}
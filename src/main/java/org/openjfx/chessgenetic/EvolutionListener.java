@@ -0,0 +1,17 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This interface is notified by the {@link EvolutionEngine} once per generation.
+ * It is called on the engine thread, so implementations must hand the snapshot over
+ * to their own thread (e.g. the JavaFX Application Thread) themselves.
+ */
+@FunctionalInterface
+public interface EvolutionListener {
+
+    /**
+     * onGeneration() method is called after the best solution of a generation has been found
+     * and once more with a finished snapshot when the run ends
+     * @param snapshot the generation snapshot
+     */
+    void onGeneration(GenerationSnapshot snapshot);
+}
@@ -0,0 +1,78 @@
+package org.openjfx.chessgenetic;
+
+import javafx.concurrent.Task;
+
+/**
+ * This class runs an {@link Evolution} (an {@link EvolutionEngine} or an {@link IslandModel}) off the JavaFX Application Thread.
+ * Every generation is turned into a {@link GenerationSnapshot}, but only a few of them per second
+ * are published through {@link #valueProperty()}, so the UI keeps its frame rate whatever the population size is.
+ * The last snapshot (the ultimate solution) is always published.
+ * Every generation goes into the {@link StatsHistory} of the charts, if there is one.
+ */
+public class EvolutionTask extends Task<GenerationSnapshot> {
+    private static final long PUBLISH_INTERVAL_NANOS = 16_000_000L; // ~60 updates per second
+
+    private final Evolution engine;             // The engine (or island model) doing the actual work
+    private final StatsHistory history;         // Gets every generation, null if none
+    private long lastPublish;                   // The time of the last published snapshot
+    private volatile GenerationSnapshot latest; // The latest snapshot, published or not
+
+    public EvolutionTask(Evolution engine) {
+        this(engine, null);
+    }
+
+    public EvolutionTask(Evolution engine, StatsHistory history) {
+        this.engine = engine;
+        this.history = history;
+    }
+
+    @Override
+    protected GenerationSnapshot call() {
+        lastPublish = System.nanoTime() - PUBLISH_INTERVAL_NANOS;
+        engine.run(this::publish);
+        return latest;
+    }
+
+    /**
+     * publish() method is called by the engine every generation (on the engine thread, one island at a time)
+     * updateValue() already coalesces the updates that the FX thread did not consume yet,
+     * we also drop the snapshots that come in faster than one frame
+     * @param snapshot the generation snapshot
+     */
+    private void publish(GenerationSnapshot snapshot) {
+        latest = snapshot;
+        if (history != null) {
+            history.add(snapshot);
+        }
+        long now = System.nanoTime();
+        if (snapshot.isFinished() || now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+            lastPublish = now;
+            updateValue(snapshot);
+            updateMessage("Generation " + snapshot.getGeneration());
+        }
+    }
+
+    /**
+     * pause() method suspends the evolution
+     */
+    public void pause() {
+        engine.pause();
+    }
+
+    /**
+     * resume() method resumes a paused evolution
+     */
+    public void resume() {
+        engine.resume();
+    }
+
+    public boolean isPaused() {
+        return engine.isPaused();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        engine.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
@@ -0,0 +1,105 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class is a Fenwick (binary indexed) tree over non negative weights.
+ * It finds the item under a point of the cumulative weights in O(log n) and changes a weight in O(log n),
+ * which is what a roulette wheel needs when the selected individuals are taken off the wheel.
+ * @see <a href="https://en.wikipedia.org/wiki/Fenwick_tree">Fenwick tree</a>
+ */
+public final class FenwickTree {
+    private final double[] tree;                // tree[i] is the sum of the weights (i - lowbit(i), i]
+    private final double[] weights;             // The weight of every item
+    private int size;                           // The number of items in use
+    private double total;                       // The sum of the weights
+
+    public FenwickTree(int capacity) {
+        tree = new double[capacity + 1];
+        weights = new double[capacity];
+    }
+
+    /**
+     * reset() method loads new weights in O(n), the tree can be reused between generations
+     * @param values the weights (must not be negative)
+     * @param size the number of weights to use
+     */
+    public void reset(double[] values, int size) {
+        if (size > weights.length) {
+            throw new IllegalArgumentException("Capacity is " + weights.length + ", got " + size + " weights");
+        }
+        this.size = size;
+        total = 0;
+        System.arraycopy(values, 0, weights, 0, size);
+        System.arraycopy(values, 0, tree, 1, size);
+        tree[0] = 0;
+        for (int i = 1; i <= size; i++) {
+            total += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * remove() method sets the weight of an item to 0 (it can not be found anymore)
+     * @param index the item
+     */
+    public void remove(int index) {
+        double weight = weights[index];
+        if (weight == 0) {
+            return;
+        }
+        weights[index] = 0;
+        total -= weight;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] -= weight;
+        }
+    }
+
+    /**
+     * find() method finds the item whose cumulative range contains the point
+     * @param point a value in [0, total())
+     * @return the index of the item, never an item of weight 0
+     */
+    public int find(double point) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= point) {
+                position = next;
+                point -= tree[next];
+            }
+        }
+        // Rounding can push the point past the last item or onto a removed one, take the closest item left
+        if (position >= size || weights[position] == 0) {
+            return closestWeighted(Math.min(position, size - 1));
+        }
+        return position;
+    }
+
+    public int capacity() {
+        return weights.length;
+    }
+
+    public double total() {
+        return total;
+    }
+
+    public double weight(int index) {
+        return weights[index];
+    }
+
+    private int closestWeighted(int index) {
+        for (int i = index; i >= 0; i--) {
+            if (weights[i] > 0) {
+                return i;
+            }
+        }
+        for (int i = index + 1; i < size; i++) {
+            if (weights[i] > 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Every weight is 0");
+    }
+}
@@ -0,0 +1,135 @@
+package org.openjfx.chessgenetic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a bounded transposition table: the conflicts of the boards already scored, keyed by their Zobrist hash.
+ * It is shared by every worker thread without locks:
+ * - the table is 4-way set associative, a hash can only go in the 4 slots of its set
+ * - a slot is two longs, the entry (conflicts + an occupied bit) and the hash xor the entry,
+ *   a reader only accepts a slot if the two agree, so a slot torn by a concurrent write is just a miss
+ * - the eviction is CLOCK inside each set: a hit sets the reference bit of the slot, the hand of the set
+ *   clears the bits it passes over and replaces the first slot that was not referenced
+ * The reference bits and the hands are plain bytes: a lost update only makes the eviction a bit less exact.
+ * Every get() counts a hit or a miss so the table can be sized from a run.
+ */
+public final class FitnessCache {
+    public static final int MISSING = -1;
+
+    private static final int WAYS = 4;
+    private static final long OCCUPIED = 1L << 32;
+
+    private final int sets;                     // The number of sets (a power of 2)
+    private final AtomicLongArray entries;      // OCCUPIED | conflicts, 0 for an empty slot
+    private final AtomicLongArray checks;       // hash ^ entry
+    private final byte[] referenced;            // The CLOCK reference bit of every slot
+    private final byte[] hands;                 // The CLOCK hand of every set
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache of at least the given number of entries (rounded up to a power of 2)
+     * @param capacity the number of entries
+     */
+    public FitnessCache(int capacity) {
+        if (capacity < WAYS || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Fitness cache capacity must be in [" + WAYS + ", 2^30]");
+        }
+        int slots = Integer.highestOneBit(capacity - 1) << 1;
+        sets = slots / WAYS;
+        entries = new AtomicLongArray(slots);
+        checks = new AtomicLongArray(slots);
+        referenced = new byte[slots];
+        hands = new byte[sets];
+    }
+
+    /**
+     * get() method looks a board up
+     * @param hash the Zobrist hash of the board
+     * @return its conflicts, MISSING if it is not in the cache
+     */
+    public int get(long hash) {
+        int first = set(hash) * WAYS;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            long entry = entries.getOpaque(slot);
+            if (entry != 0 && (checks.getOpaque(slot) ^ entry) == hash) {
+                referenced[slot] = 1;
+                hits.increment();
+                return (int) entry;
+            }
+        }
+        misses.increment();
+        return MISSING;
+    }
+
+    /**
+     * put() method stores the conflicts of a board, evicting an entry of its set if the set is full
+     * @param hash the Zobrist hash of the board
+     * @param conflicts its conflicts (not negative)
+     */
+    public void put(long hash, int conflicts) {
+        int set = set(hash);
+        int first = set * WAYS;
+        long entry = OCCUPIED | conflicts;
+
+        // An empty slot (or the same board) is taken first, otherwise the CLOCK hand picks the victim
+        int victim = -1;
+        for (int slot = first; slot < first + WAYS && victim < 0; slot++) {
+            long current = entries.getOpaque(slot);
+            if (current == 0 || (checks.getOpaque(slot) ^ current) == hash) {
+                victim = slot;
+            }
+        }
+        if (victim < 0) {
+            int hand = hands[set];
+            while (referenced[first + hand] != 0) {
+                referenced[first + hand] = 0;
+                hand = (hand + 1) % WAYS;
+            }
+            victim = first + hand;
+            hands[set] = (byte) ((hand + 1) % WAYS);
+            evictions.increment();
+        }
+
+        referenced[victim] = 0;
+        entries.setOpaque(victim, entry);
+        checks.setOpaque(victim, hash ^ entry);
+    }
+
+    private int set(long hash) {
+        // The low bits of a Zobrist hash are as random as the high ones
+        return (int) hash & (sets - 1);
+    }
+
+    /**
+     * getters
+     */
+
+    public int getCapacity() {
+        return sets * WAYS;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * getHitRate() method returns hits / (hits + misses), 0 before the first lookup
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,302 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class scores a board: the conflicts of every piece plus the queen and rook line penalties.
+ * It works on the bitboards of a {@link ChessMatrix} or directly on a genome, never allocates,
+ * and is stateless so one instance can be shared by every thread.
+ * <p>
+ * Conflicts of a piece:
+ * - queen: every diagonal and straight ray with a piece on it
+ * - rook: every straight ray with a piece on it
+ * - bishop: every diagonal ray with a piece on it
+ * - knight: every occupied square a knight move away
+ * <p>
+ * Line penalties: each queen (resp. rook) sharing a row or a column with another queen (resp. rook),
+ * beyond the first one. The line histograms are built once per board, see {@link PenaltyMode} for how they are counted.
+ */
+public final class FitnessFunction {
+
+    /**
+     * How the line penalty is added to the conflicts.
+     */
+    public enum PenaltyMode {
+        /** The penalty is added once per piece on the board (the original scoring) */
+        PER_PIECE,
+        /** The penalty is added once per board */
+        PER_BOARD
+    }
+
+    public static final FitnessFunction DEFAULT = new FitnessFunction(PenaltyMode.PER_PIECE);
+
+    private final PenaltyMode penaltyMode;
+
+    public FitnessFunction(PenaltyMode penaltyMode) {
+        this.penaltyMode = penaltyMode;
+    }
+
+    public PenaltyMode getPenaltyMode() {
+        return penaltyMode;
+    }
+
+    /**
+     * conflicts() method scores a board from its bitboards
+     * Steps:
+     * 1- Sum the attacks of every piece
+     * 2- Build the line histograms of the queens and rooks once and score them
+     * 3- Add the penalty once per piece or once per board
+     * @param occupancy every occupied square
+     * @param kindMasks the squares of each piece kind, indexed by Pieces.QUEEN..KNIGHT
+     * @return the conflicts
+     */
+    public int conflicts(long occupancy, long[] kindMasks) {
+        long queens = kindMasks[Pieces.QUEEN], rooks = kindMasks[Pieces.ROOK];
+
+        // 1- Sum the attacks of every piece
+        int attacks = attacks(occupancy, occupancy, queens, rooks, kindMasks[Pieces.BISHOP], kindMasks[Pieces.KNIGHT]);
+
+        // 2- Build the line histograms of the queens and rooks once and score them
+        // 3- Add the penalty once per piece or once per board
+        return attacks + penalty(occupancy, queens, rooks);
+    }
+
+    /**
+     * conflicts() method scores a board stored in a genome array
+     * the bitboards are built on the fly (in registers), so this also works on a slice of a bigger array
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @return the conflicts
+     */
+    public int conflicts(byte[] genes, int offset) {
+        long occupancy = 0, queens = 0, rooks = 0, bishops = 0, knights = 0;
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            byte piece = genes[offset + square];
+            if (piece == Pieces.EMPTY) {
+                continue;
+            }
+            long bit = 1L << square;
+            occupancy |= bit;
+            switch (Pieces.kind(piece)) {
+                case Pieces.QUEEN: queens |= bit; break;
+                case Pieces.ROOK: rooks |= bit; break;
+                case Pieces.BISHOP: bishops |= bit; break;
+                case Pieces.KNIGHT: knights |= bit; break;
+            }
+        }
+
+        return attacks(occupancy, occupancy, queens, rooks, bishops, knights) + penalty(occupancy, queens, rooks);
+    }
+
+    /**
+     * swapDelta() method computes how the conflicts change if two squares are swapped, without rescoring the board
+     * only the pieces that can see one of the two squares are rescored (see swapInfluence()), plus the line penalty
+     * @param occupancy every occupied square, before the swap
+     * @param kindMasks the squares of each piece kind, before the swap
+     * @param square1
+     * @param square2
+     * @return conflicts after the swap - conflicts before the swap
+     */
+    public int swapDelta(long occupancy, long[] kindMasks, int square1, int square2) {
+        return swapDelta(occupancy, kindMasks[Pieces.QUEEN], kindMasks[Pieces.ROOK],
+                kindMasks[Pieces.BISHOP], kindMasks[Pieces.KNIGHT], square1, square2);
+    }
+
+    /**
+     * swapDelta() method, same as above with the kind masks passed one by one
+     * Steps:
+     * 1- Find the pieces whose conflicts depend on the two squares
+     * 2- Score them (and the penalty) before the swap
+     * 3- Swap the two squares in every mask
+     * 4- Score them (and the penalty) after the swap
+     * @return conflicts after the swap - conflicts before the swap
+     */
+    public int swapDelta(long occupancy, long queens, long rooks, long bishops, long knights, int square1, int square2) {
+        long bits = (1L << square1) | (1L << square2);
+
+        // 1- Find the pieces whose conflicts depend on the two squares
+        long influence = swapInfluence(square1, square2, occupancy);
+
+        // 2- Score them (and the penalty) before the swap
+        int before = attacks(influence, occupancy, queens, rooks, bishops, knights) + penalty(occupancy, queens, rooks);
+
+        // 3- Swap the two squares in every mask
+        occupancy = swapBits(occupancy, bits);
+        queens = swapBits(queens, bits);
+        rooks = swapBits(rooks, bits);
+        bishops = swapBits(bishops, bits);
+        knights = swapBits(knights, bits);
+
+        // 4- Score them (and the penalty) after the swap
+        int after = attacks(influence, occupancy, queens, rooks, bishops, knights) + penalty(occupancy, queens, rooks);
+
+        return after - before;
+    }
+
+    /**
+     * swapInfluence() method finds the squares whose conflicts can change when two squares are swapped:
+     * the two squares, the first piece in each of the 8 directions from them
+     * (ignoring the two squares themselves, so it does not depend on the side of the swap)
+     * and the pieces a knight move away from them
+     * @param square1
+     * @param square2
+     * @param occupancy every occupied square
+     * @return the influenced squares
+     */
+    public static long swapInfluence(int square1, int square2, long occupancy) {
+        long bits = (1L << square1) | (1L << square2);
+        long others = occupancy & ~bits;
+        long influence = bits | ((Attacks.KNIGHT[square1] | Attacks.KNIGHT[square2]) & others);
+
+        for (int d = 0; d < Attacks.DIRECTIONS.length; d++) {
+            long blockers1 = Attacks.RAYS[d][square1] & others;
+            if (blockers1 != 0) {
+                influence |= 1L << Attacks.nearest(d, blockers1);
+            }
+            long blockers2 = Attacks.RAYS[d][square2] & others;
+            if (blockers2 != 0) {
+                influence |= 1L << Attacks.nearest(d, blockers2);
+            }
+        }
+        return influence;
+    }
+
+    /**
+     * pieceConflicts() method measures how much one piece is involved in the conflicts of a board (used by the local search):
+     * the rays and knight squares it attacks, the pieces attacking it,
+     * and for a queen (resp. rook) the other queens (resp. rooks) on its row and its column
+     * @param square the square of the piece
+     * @param occupancy every occupied square
+     * @param kindMasks the squares of each piece kind
+     * @return the conflicts of the piece, 0 for an empty square
+     */
+    public static int pieceConflicts(int square, long occupancy, long[] kindMasks) {
+        long bit = 1L << square;
+        if ((occupancy & bit) == 0) {
+            return 0;
+        }
+        long others = occupancy & ~bit;
+        long queens = kindMasks[Pieces.QUEEN];
+        long rooks = kindMasks[Pieces.ROOK];
+        long bishops = kindMasks[Pieces.BISHOP];
+        long knights = kindMasks[Pieces.KNIGHT];
+
+        // The attacks of the piece, and the sliders that see it: the nearest piece of every ray, if it slides that way
+        int conflicts = attacks(bit, occupancy, queens, rooks, bishops, knights);
+        for (int d = 0; d < Attacks.DIRECTIONS.length; d++) {
+            long blockers = Attacks.RAYS[d][square] & others;
+            if (blockers != 0) {
+                long sliders = queens | (d < Attacks.FIRST_DIAGONAL ? rooks : bishops);
+                if ((sliders & (1L << Attacks.nearest(d, blockers))) != 0) {
+                    conflicts++;
+                }
+            }
+        }
+        conflicts += Long.bitCount(Attacks.KNIGHT[square] & knights & others);
+
+        // The line penalties it takes part in
+        long sameKind = (queens & bit) != 0 ? queens : (rooks & bit) != 0 ? rooks : 0;
+        long lines = Attacks.ROWS[square / Attacks.BOARD_SIZE] | Attacks.COLUMNS[square % Attacks.BOARD_SIZE];
+        conflicts += Long.bitCount(sameKind & lines & others);
+        return conflicts;
+    }
+
+    /**
+     * penalty() method returns the line penalty part of the conflicts (used to explain a board)
+     * @param occupancy every occupied square
+     * @param kindMasks the squares of each piece kind
+     * @return the penalty, as counted in conflicts()
+     */
+    public int penalty(long occupancy, long[] kindMasks) {
+        return penalty(occupancy, kindMasks[Pieces.QUEEN], kindMasks[Pieces.ROOK]);
+    }
+
+    /**
+     * fitness() method converts the conflicts to a fitness in (0, 1], 1 being a solution
+     * @param conflicts the conflicts
+     * @return the fitness
+     */
+    public static double fitness(int conflicts) {
+        return 1.0 / (1.0 + conflicts);
+    }
+
+    private int penalty(long occupancy, long queens, long rooks) {
+        int penalty = linePenalty(queens) + linePenalty(rooks);
+        return penaltyMode == PenaltyMode.PER_PIECE ? penalty * Long.bitCount(occupancy) : penalty;
+    }
+
+    /**
+     * attacks() method sums the conflicts of the pieces standing on the given squares
+     * @param squares the squares to score
+     * @param occupancy every occupied square
+     * @return the conflicts of those pieces (no penalty)
+     */
+    private static int attacks(long squares, long occupancy, long queens, long rooks, long bishops, long knights) {
+        int attacks = 0;
+        attacks += sliderConflicts(queens & squares, occupancy, Attacks.FIRST_STRAIGHT, Attacks.DIRECTIONS.length);
+        attacks += sliderConflicts(rooks & squares, occupancy, Attacks.FIRST_STRAIGHT, Attacks.FIRST_DIAGONAL);
+        attacks += sliderConflicts(bishops & squares, occupancy, Attacks.FIRST_DIAGONAL, Attacks.DIRECTIONS.length);
+        for (long pieces = knights & squares; pieces != 0; pieces &= pieces - 1) {
+            attacks += Long.bitCount(Attacks.KNIGHT[Long.numberOfTrailingZeros(pieces)] & occupancy);
+        }
+        return attacks;
+    }
+
+    /**
+     * swapBits() method swaps the two bits of a mask (nothing changes if they are equal)
+     */
+    private static long swapBits(long mask, long bits) {
+        long set = mask & bits;
+        return set == 0 || set == bits ? mask : mask ^ bits;
+    }
+
+    /**
+     * sliderConflicts() method counts the rays with a piece on them for every piece of a mask
+     * @param pieces the pieces to check
+     * @param occupancy every occupied square
+     * @param fromDirection the first direction to check
+     * @param toDirection the last direction to check (excluded)
+     * @return the conflicts
+     */
+    private static int sliderConflicts(long pieces, long occupancy, int fromDirection, int toDirection) {
+        int conflicts = 0;
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            if ((Attacks.QUEEN[square] & occupancy) == 0) {
+                continue;
+            }
+            for (int d = fromDirection; d < toDirection; d++) {
+                if ((Attacks.RAYS[d][square] & occupancy) != 0) {
+                    conflicts++;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * linePenalty() method scores the row and column histograms of a mask:
+     * a line with n pieces costs n - 1, so a mask costs its piece count minus the number of occupied lines (per axis)
+     * @param pieces the bitboard of the pieces
+     * @return the penalty
+     */
+    static int linePenalty(long pieces) {
+        if (pieces == 0) {
+            return 0;
+        }
+        int count = Long.bitCount(pieces);
+
+        // Row histogram: one byte per row
+        int rows = 0;
+        for (int row = 0; row < Attacks.BOARD_SIZE; row++) {
+            if ((pieces & Attacks.ROWS[row]) != 0) {
+                rows++;
+            }
+        }
+
+        // Column histogram: folding the rows onto each other leaves one bit per occupied column
+        long columns = pieces | (pieces >>> 32);
+        columns |= columns >>> 16;
+        columns |= columns >>> 8;
+
+        return (count - rows) + (count - Long.bitCount(columns & 0xFF));
+    }
+}
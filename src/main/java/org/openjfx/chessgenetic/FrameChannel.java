@@ -0,0 +1,104 @@
+package org.openjfx.chessgenetic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class is one non blocking connection of the migration transport (see {@link MigrationProtocol}):
+ * the bytes read so far, cut into frames, and the queue of frames waiting to be written.
+ * Any thread may queue a frame, only the selector thread reads and writes.
+ */
+final class FrameChannel {
+    private static final int INITIAL_BUFFER = 16 * 1024;
+
+    private final SocketChannel channel;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER); // In write mode between two reads
+    private final Queue<ByteBuffer> outgoing = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;            // True once close() has been called, nothing is queued anymore
+
+    FrameChannel(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * read() method reads what is available and hands every complete frame to the handler
+     * the frame is only valid during the call (it is a view of the read buffer)
+     * @param handler called with the type + payload of every frame
+     * @return false if the other side closed the connection
+     * @throws IOException if the connection failed
+     * @throws IllegalArgumentException if a frame is invalid
+     */
+    boolean read(Consumer<ByteBuffer> handler) throws IOException {
+        int read = channel.read(readBuffer);
+        readBuffer.flip();
+        ByteBuffer frame;
+        while ((frame = MigrationProtocol.nextFrame(readBuffer)) != null) {
+            handler.accept(frame);
+        }
+        readBuffer.compact();
+
+        // A frame bigger than the buffer: make room for it
+        if (!readBuffer.hasRemaining()) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, Integer.BYTES + MigrationProtocol.MAX_FRAME));
+            readBuffer.flip();
+            readBuffer = bigger.put(readBuffer);
+        }
+        return read >= 0;
+    }
+
+    /**
+     * send() method queues a frame (from any thread), the selector thread writes it
+     * @param frame the whole frame, in read mode, not modified afterwards
+     * @return false if the connection is closed, the frame is dropped (no thread would ever write it)
+     */
+    boolean send(ByteBuffer frame) {
+        if (closed) {
+            return false;
+        }
+        outgoing.add(frame);
+        if (closed) {
+            // close() ran meanwhile, it may have cleared the queue before the frame was added
+            outgoing.clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * flush() method writes as much of the queued frames as the socket takes
+     * @return true if everything was written
+     */
+    boolean flush() throws IOException {
+        ByteBuffer frame;
+        while ((frame = outgoing.peek()) != null) {
+            channel.write(frame);
+            if (frame.hasRemaining()) {
+                return false;
+            }
+            outgoing.poll();
+        }
+        return true;
+    }
+
+    boolean hasPending() {
+        return !outgoing.isEmpty();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    void close() {
+        closed = true;
+        outgoing.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with this connection
+        }
+    }
+}
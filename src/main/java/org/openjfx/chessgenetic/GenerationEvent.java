@@ -0,0 +1,75 @@
+package org.openjfx.chessgenetic;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * This class is the JDK Flight Recorder event of one generation of an {@link EvolutionEngine}:
+ * its duration is the whole generation, its fields the time spent in every phase (see {@link GenerationMetrics}).
+ * Record it with -XX:StartFlightRecording, or with jcmd on a running process:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=run.jfr -cp target/classes org.openjfx.chessgenetic.HeadlessRunner ...
+ * jfr print --events org.openjfx.chessgenetic.Generation run.jfr
+ * </pre>
+ */
+@Name("org.openjfx.chessgenetic.Generation")
+@Label("Generation")
+@Category("Chess Genetic")
+@Description("One generation of the genetic algorithm")
+final class GenerationEvent extends Event {
+
+    @Label("Generation")
+    int generation;
+
+    @Label("Best Conflicts")
+    int bestConflicts;
+
+    @Label("Selection")
+    @Timespan(Timespan.NANOSECONDS)
+    long selection;
+
+    @Label("Crossover")
+    @Timespan(Timespan.NANOSECONDS)
+    long crossover;
+
+    @Label("Mutation")
+    @Timespan(Timespan.NANOSECONDS)
+    long mutation;
+
+    @Label("Evaluation")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluation;
+
+    @Label("Best Tracking")
+    @Timespan(Timespan.NANOSECONDS)
+    long bestTracking;
+
+    @Label("Local Search")
+    @Timespan(Timespan.NANOSECONDS)
+    long localSearch;
+
+    @Label("Mutation Probability")
+    @Description("The mutation probability of the generation (see AdaptiveOperators)")
+    double mutationProbability;
+
+    @Label("Mutation Success")
+    @Description("The part of the mutations that lowered the conflicts, NaN if the operators are fixed")
+    double mutationSuccess;
+
+    @Label("Evaluations")
+    @Description("Boards scored during the generation")
+    long evaluations;
+
+    @Label("Evaluations Per Second")
+    double evaluationsPerSecond;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the engine and worker threads during the generation")
+    @DataAmount
+    long allocated;
+}
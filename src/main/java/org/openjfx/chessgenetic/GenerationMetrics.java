@@ -0,0 +1,199 @@
+package org.openjfx.chessgenetic;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class measures where the time of a run goes, generation by generation:
+ * the time spent in every phase, the boards scored (evaluations) and the bytes allocated.
+ * The worker threads add their measures to striped counters while a generation runs,
+ * the engine thread closes the generation and keeps its values and the totals of the run.
+ * The phase times of the worker threads are added up, so with several threads they can exceed the generation time.
+ * The values are read on the engine thread (or after the run).
+ * The engine only measures when instrumentation is on or when a {@link GenerationEvent} is being recorded.
+ */
+public final class GenerationMetrics {
+
+    /**
+     * The phases of a generation.
+     */
+    public enum Phase {
+        /** Picking the parents */
+        SELECTION,
+        /** Building the children (and copying the parents that are not crossed) */
+        CROSSOVER,
+        /** Mutating the children, with the incremental rescoring of the swaps */
+        MUTATION,
+        /** Scoring the children */
+        EVALUATION,
+        /** Finding the best individual and updating the ultimate solution */
+        BEST_TRACKING,
+        /** The min-conflicts hill climb of the memetic mode */
+        LOCAL_SEARCH
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter(); // Null if not supported
+
+    private final LongAdder[] running = new LongAdder[PHASES.length]; // The phases of the current generation
+    private final LongAdder runningEvaluations = new LongAdder(); // The evaluations of the current generation
+    private final LongAdder runningAllocated = new LongAdder(); // The bytes allocated by the worker threads
+    private final long[] last = new long[PHASES.length]; // The phases of the last generation, in nanoseconds
+    private final long[] total = new long[PHASES.length]; // The phases of the whole run, in nanoseconds
+    private long lastEvaluations;               // The evaluations of the last generation
+    private long lastAllocated;                 // The bytes allocated during the last generation
+    private long lastNanos;                     // The duration of the last generation
+    private long totalEvaluations;              // The evaluations of the whole run
+    private long totalAllocated;                // The bytes allocated during the whole run
+    private long totalNanos;                    // The duration of the measured generations
+    private int generations;                    // The number of measured generations
+    private long start;                         // When the current generation started
+    private long startAllocated;                // The bytes allocated by the engine thread when it started
+
+    public GenerationMetrics() {
+        for (int i = 0; i < PHASES.length; i++) {
+            running[i] = new LongAdder();
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * allocatedBytes() method returns the bytes allocated so far by the calling thread
+     * @return the bytes, 0 if the JVM can not count them
+     */
+    static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * begin() method starts measuring a generation (engine thread)
+     */
+    void begin() {
+        start = System.nanoTime();
+        startAllocated = allocatedBytes();
+    }
+
+    /**
+     * add() method adds time to a phase of the current generation (any thread)
+     * @param phase the phase
+     * @param nanos the time, in nanoseconds
+     */
+    void add(Phase phase, long nanos) {
+        running[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * addEvaluations() method counts boards scored during the current generation (any thread)
+     * @param evaluations the number of boards
+     */
+    void addEvaluations(long evaluations) {
+        runningEvaluations.add(evaluations);
+    }
+
+    /**
+     * addAllocated() method counts bytes allocated by a worker thread during the current generation
+     * @param bytes the number of bytes
+     */
+    void addAllocated(long bytes) {
+        runningAllocated.add(bytes);
+    }
+
+    /**
+     * end() method closes the current generation (engine thread), once every worker thread is done with it
+     */
+    void end() {
+        lastNanos = System.nanoTime() - start;
+        runningAllocated.add(allocatedBytes() - startAllocated);
+        for (int i = 0; i < PHASES.length; i++) {
+            last[i] = running[i].sumThenReset();
+            total[i] += last[i];
+        }
+        lastEvaluations = runningEvaluations.sumThenReset();
+        lastAllocated = runningAllocated.sumThenReset();
+        totalEvaluations += lastEvaluations;
+        totalAllocated += lastAllocated;
+        totalNanos += lastNanos;
+        generations++;
+    }
+
+    /**
+     * getters
+     */
+
+    /**
+     * getNanos() method returns the time spent in a phase during the last generation
+     * @param phase the phase
+     * @return the time, in nanoseconds
+     */
+    public long getNanos(Phase phase) {
+        return last[phase.ordinal()];
+    }
+
+    /**
+     * getTotalNanos() method returns the time spent in a phase during the whole run
+     * @param phase the phase
+     * @return the time, in nanoseconds
+     */
+    public long getTotalNanos(Phase phase) {
+        return total[phase.ordinal()];
+    }
+
+    public long getGenerationNanos() {
+        return lastNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getEvaluations() {
+        return lastEvaluations;
+    }
+
+    public long getTotalEvaluations() {
+        return totalEvaluations;
+    }
+
+    /**
+     * getEvaluationsPerSecond() method returns the scoring throughput of the last generation
+     * @return the boards scored per second
+     */
+    public double getEvaluationsPerSecond() {
+        return lastNanos == 0 ? 0 : lastEvaluations * 1e9 / lastNanos;
+    }
+
+    /**
+     * getAverageEvaluationsPerSecond() method returns the scoring throughput of the whole run
+     * @return the boards scored per second
+     */
+    public double getAverageEvaluationsPerSecond() {
+        return totalNanos == 0 ? 0 : totalEvaluations * 1e9 / totalNanos;
+    }
+
+    /**
+     * getAllocatedBytes() method returns the bytes allocated during the last generation
+     * @return the bytes, 0 if the JVM can not count them
+     */
+    public long getAllocatedBytes() {
+        return lastAllocated;
+    }
+
+    /**
+     * getAverageAllocatedBytes() method returns the bytes allocated per generation over the whole run
+     * @return the bytes, 0 if the JVM can not count them
+     */
+    public long getAverageAllocatedBytes() {
+        return generations == 0 ? 0 : totalAllocated / generations;
+    }
+
+    public int getGenerations() {
+        return generations;
+    }
+}
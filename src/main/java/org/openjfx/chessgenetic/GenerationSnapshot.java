@@ -0,0 +1,150 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class is an immutable picture of one generation, published by the {@link EvolutionEngine}
+ * to whoever is watching the run (the UI, the console...)
+ * The board is a copy, so it stays valid after the population has moved on.
+ * Besides the best board it carries the statistics of the population (mean and worst conflicts, diversity, distance),
+ * the snapshots built from a single board have mean = worst = best and an unknown (NaN) diversity and distance.
+ */
+public final class GenerationSnapshot {
+    private final int generation;               // The generation this snapshot was taken at
+    private final int bestConflicts;            // The conflicts of the best board of this generation
+    private final int ultimateConflicts;        // The conflicts of the best board found so far
+    private final char[][] board;               // A copy of the best board of this generation
+    private final boolean finished;             // True if this is the last snapshot of the run
+    private final int island;                   // The island this generation ran on (0 without islands)
+    private final double meanConflicts;         // The mean conflicts of the population
+    private final int worstConflicts;           // The conflicts of the worst board of the population
+    private final double diversity;             // The part of the population in distinct symmetry classes, NaN if unknown
+    private final double distance;              // The mean Hamming distance between two boards (sampled), NaN if unknown
+
+    public GenerationSnapshot(int generation, int bestConflicts, int ultimateConflicts, char[][] board, boolean finished) {
+        this(generation, bestConflicts, ultimateConflicts, board, finished, 0);
+    }
+
+    public GenerationSnapshot(int generation, int bestConflicts, int ultimateConflicts, char[][] board, boolean finished,
+                              int island) {
+        this(generation, bestConflicts, ultimateConflicts, board, finished, island, bestConflicts, bestConflicts, Double.NaN);
+    }
+
+    public GenerationSnapshot(int generation, int bestConflicts, int ultimateConflicts, char[][] board, boolean finished,
+                              int island, double meanConflicts, int worstConflicts, double diversity) {
+        this(generation, bestConflicts, ultimateConflicts, board, finished, island, meanConflicts, worstConflicts, diversity,
+                Double.NaN);
+    }
+
+    public GenerationSnapshot(int generation, int bestConflicts, int ultimateConflicts, char[][] board, boolean finished,
+                              int island, double meanConflicts, int worstConflicts, double diversity, double distance) {
+        this.generation = generation;
+        this.bestConflicts = bestConflicts;
+        this.ultimateConflicts = ultimateConflicts;
+        this.board = board;
+        this.finished = finished;
+        this.island = island;
+        this.meanConflicts = meanConflicts;
+        this.worstConflicts = worstConflicts;
+        this.diversity = diversity;
+        this.distance = distance;
+    }
+
+    /**
+     * of() method takes a snapshot of the given board
+     * @param generation the current generation
+     * @param best the board to display
+     * @param ultimate the best board found so far
+     * @param finished true if the run is over
+     * @return the snapshot
+     */
+    public static GenerationSnapshot of(int generation, ChessMatrix best, ChessMatrix ultimate, boolean finished) {
+        char[][] source = best.getBoard();
+        char[][] copy = new char[source.length][];
+        for (int i = 0; i < source.length; i++) {
+            copy[i] = source[i].clone();
+        }
+        return new GenerationSnapshot(generation, best.getConflicts(), ultimate.getConflicts(), copy, finished);
+    }
+
+    /**
+     * of() method takes a snapshot of one individual of a population, without building a ChessMatrix
+     * @param generation the current generation
+     * @param population the population
+     * @param best the index of the individual to display
+     * @param ultimate the best board found so far
+     * @param diversity the part of the population in distinct symmetry classes, NaN if unknown
+     * @param distance the mean Hamming distance between two boards of the population, NaN if unknown
+     * @param finished true if the run is over
+     * @return the snapshot
+     */
+    public static GenerationSnapshot of(int generation, Population population, int best, ChessMatrix ultimate,
+                                        double diversity, double distance, boolean finished) {
+        byte[] genomes = population.getGenomes();
+        int offset = population.offset(best);
+        char[][] board = new char[Attacks.BOARD_SIZE][Attacks.BOARD_SIZE];
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            board[square / Attacks.BOARD_SIZE][square % Attacks.BOARD_SIZE] = Pieces.toChar(genomes[offset + square]);
+        }
+        return new GenerationSnapshot(generation, population.getConflicts(best), ultimate.getConflicts(), board, finished, 0,
+                population.meanConflicts(), population.worstConflicts(), diversity, distance);
+    }
+
+    /**
+     * forIsland() method tags a snapshot with its island and the ultimate conflicts of the whole model
+     * (the board is shared, it is never modified)
+     * @param island the island
+     * @param ultimateConflicts the conflicts of the best board found by any island
+     * @return the new snapshot
+     */
+    public GenerationSnapshot forIsland(int island, int ultimateConflicts) {
+        return new GenerationSnapshot(generation, bestConflicts, ultimateConflicts, board, finished, island,
+                meanConflicts, worstConflicts, diversity, distance);
+    }
+
+    /**
+     * getters
+     */
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getBestConflicts() {
+        return bestConflicts;
+    }
+
+    public int getUltimateConflicts() {
+        return ultimateConflicts;
+    }
+
+    public char[][] getBoard() {
+        return board;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int getIsland() {
+        return island;
+    }
+
+    public double getMeanConflicts() {
+        return meanConflicts;
+    }
+
+    public int getWorstConflicts() {
+        return worstConflicts;
+    }
+
+    /**
+     * getDiversity() method returns the part of the population in distinct symmetry classes
+     * @return in (0, 1], 1 if every board is unique, NaN if unknown
+     */
+    public double getDiversity() {
+        return diversity;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+}
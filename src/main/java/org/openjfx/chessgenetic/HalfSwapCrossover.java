@@ -0,0 +1,20 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the original single point crossover: the cut is the middle of the board,
+ * so the first child gets the top half of the first parent and the bottom half of the second one (and the other way round).
+ * It draws no random number.
+ */
+public final class HalfSwapCrossover implements CrossoverOperator {
+    private static final int HALF = Attacks.SQUARES / 2;
+
+    @Override
+    public void cross(byte[] parents, int parent1, int parent2, byte[] children, int child1, int child2, RandomGenerator random) {
+        System.arraycopy(parents, parent1, children, child1, HALF);
+        System.arraycopy(parents, parent2 + HALF, children, child1 + HALF, HALF);
+        System.arraycopy(parents, parent2, children, child2, HALF);
+        System.arraycopy(parents, parent1 + HALF, children, child2 + HALF, HALF);
+    }
+}
@@ -0,0 +1,339 @@
+package org.openjfx.chessgenetic;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * This class runs the genetic algorithm without any UI, for batch jobs on machines without a display.
+ * It runs the same {@link EvolutionEngine} as the JavaFX board (or an {@link IslandModel}, or a {@link PlacementEngine}
+ * for the other problems) and never loads a JavaFX class,
+ * so run it from the class path (not the module path, the module requires JavaFX):
+ * <pre>
+ * java -cp target/classes org.openjfx.chessgenetic.HeadlessRunner --population 10000 --generations 5000 --seed 42 --stats stats.csv
+ * </pre>
+ * Options (all optional):
+ * --problem N[:PIECES] (an NxN board, the white pieces, see {@link ProblemDefinition}),
+ * --population N, --generations N, --target-fitness X, --seed S, --threads T,
+ * --selection ROULETTE|STOCHASTIC_UNIVERSAL|TOURNAMENT|LINEAR_RANK|TRUNCATION, --tournament-size K,
+ * --rank-pressure X, --truncation-fraction X, --crossover HALF_SWAP|PMX|ORDER|CYCLE|UNIFORM_SWAP,
+ * --crossover-probability X, --mutation-probability X, --adaptive-operators (see {@link AdaptiveOperators}, its decisions
+ * are added to the stats and the result),
+ * --islands N, --migration-interval N, --migration-size N, --topology RING|FULL|RANDOM,
+ * --coordinator HOST:PORT (this process is one island of a {@link MigrationCoordinator}),
+ * --checkpoint FILE, --checkpoint-interval N, --resume (start from the checkpoint FILE if it exists),
+ * --local-search N, --local-search-evaluations N, --local-search-millis N (memetic mode),
+ * --stagnation NONE|RESEED|HYPERMUTATION|RESTART, --min-distance X, --stagnation-generations N, --reseed-fraction X,
+ * --fitness-cache N, --deduplicate, --elite K, --replacement GENERATIONAL|STEADY_STATE, --steady-state-replacements N, --penalty PER_PIECE|PER_BOARD,
+ * --output FILE (the result, stdout by default), --stats FILE (one CSV line per generation, - for stdout:
+ * best, ultimate, mean and worst conflicts, diversity, distance, with an island column when there are islands),
+ * --verbose (the engine progress lines on stdout), --profile (the time of every phase, the evaluations/s
+ * and the bytes allocated per generation in the result, see {@link GenerationMetrics})
+ * Exit code: 0 if the run ended, 2 if the arguments are wrong.
+ */
+public final class HeadlessRunner {
+
+    private HeadlessRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        EvolutionConfig config = new EvolutionConfig();
+        config.setConsoleLogging(false);
+        String output = null;
+        String stats = null;
+        InetSocketAddress coordinator = null;
+
+        // 1- Parse the arguments (--name value or --name=value)
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                String value = null;
+                int equals = name.indexOf('=');
+                if (equals > 0) {
+                    value = name.substring(equals + 1);
+                    name = name.substring(0, equals);
+                }
+                if (name.equals("--help") || name.equals("-h")) {
+                    printUsage(System.out);
+                    return;
+                }
+                if (name.equals("--verbose")) {
+                    config.setConsoleLogging(true);
+                    continue;
+                }
+                if (name.equals("--profile")) {
+                    config.setInstrumentation(true);
+                    continue;
+                }
+                if (name.equals("--resume")) {
+                    config.setResume(true);
+                    continue;
+                }
+                if (name.equals("--adaptive-operators")) {
+                    config.setAdaptiveOperators(true);
+                    continue;
+                }
+                if (name.equals("--deduplicate")) {
+                    config.setDeduplicate(true);
+                    continue;
+                }
+                if (value == null) {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value for " + name);
+                    }
+                    value = args[++i];
+                }
+                switch (name) {
+                    case "--problem" -> config.setProblem(ProblemDefinition.parse(value));
+                    case "--population" -> config.setPopulationSize(Integer.parseInt(value));
+                    case "--generations" -> config.setMaxGenerations(Integer.parseInt(value));
+                    case "--target-fitness" -> config.setTargetFitness(Double.parseDouble(value));
+                    case "--seed" -> config.setSeed(Long.parseLong(value));
+                    case "--threads" -> config.setThreads(Integer.parseInt(value));
+                    case "--selection" -> config.setSelectionType(SelectionType.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--tournament-size" -> config.setTournamentSize(Integer.parseInt(value));
+                    case "--rank-pressure" -> config.setRankPressure(Double.parseDouble(value));
+                    case "--truncation-fraction" -> config.setTruncationFraction(Double.parseDouble(value));
+                    case "--crossover" -> config.setCrossoverType(CrossoverType.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--crossover-probability" -> config.setCrossoverProbability(Double.parseDouble(value));
+                    case "--mutation-probability" -> config.setMutationProbability(Double.parseDouble(value));
+                    case "--islands" -> config.setIslands(Integer.parseInt(value));
+                    case "--migration-interval" -> config.setMigrationInterval(Integer.parseInt(value));
+                    case "--migration-size" -> config.setMigrationSize(Integer.parseInt(value));
+                    case "--topology" -> config.setMigrationTopology(IslandModel.Topology.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--checkpoint" -> config.setCheckpointFile(Path.of(value));
+                    case "--checkpoint-interval" -> config.setCheckpointInterval(Integer.parseInt(value));
+                    case "--local-search" -> config.setLocalSearchIndividuals(Integer.parseInt(value));
+                    case "--local-search-evaluations" -> config.setLocalSearchEvaluations(Integer.parseInt(value));
+                    case "--local-search-millis" -> config.setLocalSearchMillis(Integer.parseInt(value));
+                    case "--stagnation" -> config.setStagnationResponse(EvolutionConfig.StagnationResponse.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--min-distance" -> config.setMinDistance(Double.parseDouble(value));
+                    case "--stagnation-generations" -> config.setStagnationGenerations(Integer.parseInt(value));
+                    case "--reseed-fraction" -> config.setReseedFraction(Double.parseDouble(value));
+                    case "--fitness-cache" -> config.setFitnessCacheSize(Integer.parseInt(value));
+                    case "--elite" -> config.setEliteCount(Integer.parseInt(value));
+                    case "--replacement" -> config.setReplacementMode(EvolutionConfig.ReplacementMode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--steady-state-replacements" -> config.setSteadyStateReplacements(Integer.parseInt(value));
+                    case "--penalty" -> config.setPenaltyMode(FitnessFunction.PenaltyMode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "--coordinator" -> coordinator = parseAddress(value);
+                    case "--output" -> output = value;
+                    case "--stats" -> stats = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            config.validate();
+            if (coordinator != null && config.getIslands() > 1) {
+                throw new IllegalArgumentException("--coordinator runs one island per process, it can not be used with --islands");
+            }
+            if (coordinator != null && !config.getProblem().isStandard()) {
+                throw new IllegalArgumentException("--coordinator only runs the standard problem");
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            System.err.println("Error: " + e.getMessage());
+            printUsage(System.err);
+            System.exit(2);
+            return;
+        }
+
+        // 2- Run the engine, writing one stats line per generation
+        long start = System.nanoTime();
+        boolean islands = config.getIslands() > 1;
+        Evolution engine = islands ? new IslandModel(config)
+                : config.getProblem().isStandard() ? new EvolutionEngine(config) : new PlacementEngine(config);
+        NetworkMigration network = coordinator == null ? null : NetworkMigration.connect(coordinator, (EvolutionEngine) engine, config);
+        AdaptiveOperators adaptive = engine instanceof EvolutionEngine single ? single.getAdaptiveOperators() : null;
+        Solution solution;
+        try (PrintWriter statsWriter = openWriter(stats); network) {
+            if (statsWriter != null) {
+                StringBuilder header = new StringBuilder(
+                        "generation,best_conflicts,ultimate_conflicts,elapsed_ms,mean_conflicts,worst_conflicts,diversity,distance");
+                if (adaptive != null) {
+                    header.append(",mutation_probability,mutation_success");
+                    for (CrossoverType type : adaptive.getOperators()) {
+                        header.append(",share_").append(type.name().toLowerCase(Locale.ROOT));
+                    }
+                }
+                statsWriter.println(header + (islands ? ",island" : ""));
+            }
+            solution = engine.run(snapshot -> {
+                if (statsWriter != null && !snapshot.isFinished()) {
+                    statsWriter.println(snapshot.getGeneration() + "," + snapshot.getBestConflicts() + ","
+                            + snapshot.getUltimateConflicts() + "," + (System.nanoTime() - start) / 1_000_000
+                            + "," + String.format(Locale.ROOT, "%.3f,%d,%.4f,%.3f", snapshot.getMeanConflicts(),
+                            snapshot.getWorstConflicts(), snapshot.getDiversity(), snapshot.getDistance())
+                            + (adaptive != null ? adaptiveColumns(adaptive) : "")
+                            + (islands ? "," + snapshot.getIsland() : ""));
+                }
+            });
+            // A node stopped by the coordinator returns the global best if it is better than its own
+            if (network != null) {
+                network.finish((ChessMatrix) solution);
+                ChessMatrix globalBest = network.getGlobalBest();
+                if (globalBest != null && (solution == null || globalBest.getConflicts() < solution.getConflicts())) {
+                    solution = globalBest;
+                }
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        // 3- Write the result
+        try (PrintWriter resultWriter = openWriter(output == null ? "-" : output)) {
+            writeResult(resultWriter, config, engine, network, solution, elapsed);
+        }
+    }
+
+    /**
+     * writeResult() method writes the run summary, the board and its conflicts
+     */
+    private static void writeResult(PrintWriter writer, EvolutionConfig config, Evolution engine,
+                                    NetworkMigration network, Solution solution, long elapsed) {
+        writer.println("seed=" + config.getSeed());
+        if (!config.getProblem().isStandard()) {
+            writer.println("problem=" + config.getProblem());
+        }
+        writer.println("population=" + config.getPopulationSize());
+        writer.println("threads=" + config.getThreads());
+        writer.println("selection=" + config.getSelectionType().name());
+        writer.println("crossover=" + config.getCrossoverType().name());
+        writer.println("replacement=" + config.getReplacementMode().name());
+        writer.println("elite=" + config.getEliteCount());
+        writer.println("conflicts=" + solution.getConflicts());
+        writer.println("fitness=" + solution.getFitness());
+        writer.println("elapsed_ms=" + elapsed);
+        if (engine instanceof IslandModel model) {
+            writer.println("islands=" + model.getIslandCount());
+            writer.println("migrants_sent=" + model.getMigrantsSent());
+            writer.println("migrants_received=" + model.getMigrantsReceived());
+        }
+        if (network != null) {
+            writer.println("migrants_sent=" + network.getMigrantsSent());
+            writer.println("migrants_received=" + network.getMigrantsReceived());
+            writer.println("stopped_by_coordinator=" + (network.getGlobalBest() != null));
+        }
+        if (config.isInstrumentation() && engine instanceof EvolutionEngine single) {
+            GenerationMetrics metrics = single.getMetrics();
+            for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+                writer.println(phase.name().toLowerCase(Locale.ROOT) + "_ms=" + metrics.getTotalNanos(phase) / 1_000_000);
+            }
+            writer.println("generations_ms=" + metrics.getTotalNanos() / 1_000_000);
+            writer.println("evaluations=" + metrics.getTotalEvaluations());
+            writer.println("evaluations_per_second=" + Math.round(metrics.getAverageEvaluationsPerSecond()));
+            writer.println("allocated_bytes_per_generation=" + metrics.getAverageAllocatedBytes());
+        }
+        AdaptiveOperators adaptive = engine instanceof EvolutionEngine single ? single.getAdaptiveOperators() : null;
+        if (adaptive != null) {
+            writer.println("mutation_probability=" + adaptive.getMutationProbability());
+            writer.println("mutation_success=" + adaptive.getMutationSuccess());
+            for (CrossoverType type : adaptive.getOperators()) {
+                writer.println("share_" + type.name().toLowerCase(Locale.ROOT) + "=" + adaptive.getShare(type));
+            }
+        }
+        if (config.getStagnationResponse() != EvolutionConfig.StagnationResponse.NONE && engine instanceof EvolutionEngine single) {
+            writer.println("stagnation_responses=" + single.getStagnationResponses());
+        }
+        FitnessCache cache = engine instanceof EvolutionEngine single ? single.getFitnessCache() : null;
+        if (cache != null) {
+            writer.println("cache_hits=" + cache.getHits());
+            writer.println("cache_misses=" + cache.getMisses());
+            writer.println("cache_evictions=" + cache.getEvictions());
+        }
+        for (char[] row : solution.getBoard()) {
+            writer.println(new String(row));
+        }
+        for (String conflict : solution.explainConflicts()) {
+            writer.println("# " + conflict);
+        }
+    }
+
+    /**
+     * adaptiveColumns() method formats the decisions of the adaptive operators for a stats line
+     * @return the mutation probability, its success rate and the share of every operator, each after a comma
+     */
+    private static String adaptiveColumns(AdaptiveOperators adaptive) {
+        StringBuilder columns = new StringBuilder(String.format(Locale.ROOT, ",%.4f,%.4f",
+                adaptive.getMutationProbability(), adaptive.getMutationSuccess()));
+        for (CrossoverType type : adaptive.getOperators()) {
+            columns.append(String.format(Locale.ROOT, ",%.4f", adaptive.getShare(type)));
+        }
+        return columns.toString();
+    }
+
+    /**
+     * parseAddress() method parses a HOST:PORT address
+     */
+    private static InetSocketAddress parseAddress(String value) {
+        int colon = value.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Invalid address " + value + ", expected HOST:PORT");
+        }
+        return new InetSocketAddress(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+    }
+
+    /**
+     * openWriter() method opens a file, or stdout for "-"
+     * @param target the file name, "-" or null
+     * @return the writer (stdout is never closed), null if target is null
+     */
+    private static PrintWriter openWriter(String target) throws IOException {
+        if (target == null) {
+            return null;
+        }
+        if (target.equals("-")) {
+            return new PrintWriter(new OutputStreamWriter(new FilterOutputStream(System.out) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, StandardCharsets.UTF_8), false);
+        }
+        return new PrintWriter(Files.newBufferedWriter(Path.of(target), StandardCharsets.UTF_8));
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -cp <classes> org.openjfx.chessgenetic.HeadlessRunner [options]");
+        out.println("  --problem N[:PIECES]      NxN board (even, 4 to 180) with the white PIECES, black gets the same set");
+        out.println("                            (default 8:QQRKB, Q queen, R rook, B bishop, K knight)");
+        out.println("  --population N            population size (default 100)");
+        out.println("  --generations N           maximum number of generations (default 1000)");
+        out.println("  --target-fitness X        stop once the best fitness reaches X (default 1.0)");
+        out.println("  --seed S                  random seed (default: random, printed in the result)");
+        out.println("  --threads T               worker threads (default: available processors)");
+        out.println("  --selection TYPE          ROULETTE, STOCHASTIC_UNIVERSAL, TOURNAMENT, LINEAR_RANK, TRUNCATION");
+        out.println("  --tournament-size K       individuals per tournament (default 3)");
+        out.println("  --rank-pressure X         linear rank pressure in [1, 2] (default 1.5)");
+        out.println("  --truncation-fraction X   part of the population kept by truncation (default 0.5)");
+        out.println("  --crossover TYPE          HALF_SWAP (default), PMX, ORDER, CYCLE, UNIFORM_SWAP");
+        out.println("  --crossover-probability X probability that a pair is crossed, otherwise copied (default 0.8)");
+        out.println("  --mutation-probability X  probability that a child is mutated (default 0.1)");
+        out.println("  --adaptive-operators      adapt the mutation probability (1/5th rule) and the crossover operator mix");
+        out.println("  --islands N               subpopulations on their own threads (default 1), the population is shared");
+        out.println("  --migration-interval N    generations between two migrations, 0 for none (default 10)");
+        out.println("  --migration-size N        individuals sent per migration (default 2)");
+        out.println("  --topology TYPE           RING (default), FULL or RANDOM");
+        out.println("  --coordinator HOST:PORT   run as one island of a MigrationCoordinator (same migration options)");
+        out.println("  --checkpoint FILE         save the run to FILE every few generations and at the end");
+        out.println("  --checkpoint-interval N   generations between two checkpoints, 0 for the last one only (default 1000)");
+        out.println("  --resume                  start from the checkpoint FILE if it exists (same seed, population size and options)");
+        out.println("  --local-search N          best children improved by a min-conflicts hill climb every generation (default 0)");
+        out.println("  --local-search-evaluations N  moves scored by the hill climbs per generation (default 2000)");
+        out.println("  --local-search-millis N   time the hill climbs may take per generation, 0 for no limit (default 0)");
+        out.println("  --stagnation RESPONSE     NONE (default), RESEED, HYPERMUTATION or RESTART (the elite is kept)");
+        out.println("  --min-distance X          mean Hamming distance under which the diversity has collapsed (default 2.0)");
+        out.println("  --stagnation-generations N  generations without progress before a response (default 50)");
+        out.println("  --reseed-fraction X       part of the population replaced by RESEED (default 0.5)");
+        out.println("  --fitness-cache N         entries of the fitness cache (default 0: no cache)");
+        out.println("  --deduplicate             replace the boards whose symmetry class is already in the population");
+        out.println("  --elite K                 best individuals carried over untouched (default 0)");
+        out.println("  --replacement MODE        GENERATIONAL (default) or STEADY_STATE");
+        out.println("  --steady-state-replacements N  worst individuals replaced per step (default 2)");
+        out.println("  --penalty MODE            PER_PIECE (default) or PER_BOARD");
+        out.println("  --output FILE             result file (default stdout)");
+        out.println("  --stats FILE              per generation CSV, - for stdout");
+        out.println("  --verbose                 print the engine progress lines");
+        out.println("  --profile                 measure every phase of the generations and print the totals");
+    }
+}
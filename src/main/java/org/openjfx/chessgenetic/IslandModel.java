@@ -0,0 +1,296 @@
+package org.openjfx.chessgenetic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class runs the genetic algorithm as an island model: the population is split into subpopulations (islands),
+ * each one is an {@link EvolutionEngine} on its own thread with the usual selection, crossover and mutation,
+ * and every few generations each island sends copies of its best individuals to other islands (migration).
+ * The islands never wait for each other:
+ * - every (sender, receiver) pair has a mailbox, an atomic reference to the last batch of migrants sent
+ * - a sender replaces the batch of its mailboxes (the receiver may not have taken the previous one, it is dropped)
+ * - a receiver takes the batches of its mailboxes (getAndSet to null) and puts the migrants in place of its worst individuals
+ * A batch is a small {@link Population}, never modified once it is in a mailbox.
+ * The first island to reach the target stops the others.
+ * As the islands run freely, a seeded run is only repeatable without migration (interval 0).
+ * @see <a href="https://en.wikipedia.org/wiki/Genetic_algorithm#Parallel_implementations">Parallel genetic algorithms</a>
+ */
+public class IslandModel implements Evolution {
+
+    /**
+     * Where the migrants of an island go.
+     */
+    public enum Topology {
+        /** To the next island, the last one sends to the first one */
+        RING,
+        /** To every other island */
+        FULL,
+        /** To one other island, drawn at every migration */
+        RANDOM
+    }
+
+    private final EvolutionEngine[] islands;    // One engine per island
+    private final Topology topology;            // Where the migrants go
+    private final int migrationInterval;        // The generations between two migrations, 0 for none
+    private final int migrationSize;            // The individuals sent per migration
+    private final double targetFitness;         // The fitness at which the run stops
+    private final boolean consoleLogging;       // Print the progress on the console
+    private final AtomicReferenceArray<Population> mailboxes; // The last batch sent by island i to island j, at i * n + j
+    private final SplittableRandom[] migrationRandoms; // The random generator of each island (RANDOM topology)
+    private final int[][] indexBuffers;         // The best / worst indexes of each island
+    private final AtomicReference<ChessMatrix> ultimateSolution = new AtomicReference<>(); // The best board of every island
+    private final LongAdder migrantsSent = new LongAdder();
+    private final LongAdder migrantsReceived = new LongAdder();
+    private final Object listenerLock = new Object(); // The listener is called by one island at a time
+
+    /**
+     * Creates the islands: the population size of the config is shared between them,
+     * each island runs on one thread with its own seed (derived from the seed of the config)
+     * @param config the run parameters, islands > 1 for an actual island model
+     */
+    public IslandModel(EvolutionConfig config) {
+        config.validate();
+        int count = config.getIslands();
+        topology = config.getMigrationTopology();
+        migrationInterval = config.getMigrationInterval();
+        migrationSize = config.getMigrationSize();
+        targetFitness = config.getTargetFitness();
+        consoleLogging = config.isConsoleLogging();
+        mailboxes = new AtomicReferenceArray<>(count * count);
+        migrationRandoms = new SplittableRandom[count];
+        indexBuffers = new int[count][migrationSize];
+        islands = new EvolutionEngine[count];
+
+        RandomStreams streams = new RandomStreams(config.getSeed());
+        for (int i = 0; i < count; i++) {
+            EvolutionConfig islandConfig = config.copy();
+            islandConfig.setIslands(1);
+            islandConfig.setThreads(1);
+            islandConfig.setConsoleLogging(false);
+            islandConfig.setPopulationSize(config.getPopulationSize() / count + (i < config.getPopulationSize() % count ? 1 : 0));
+            islandConfig.setSeed(streams.stream(0, RandomStreams.ISLAND, i).nextLong());
+            migrationRandoms[i] = streams.stream(0, RandomStreams.MIGRATION, i);
+
+            int island = i;
+            islands[i] = new EvolutionEngine(islandConfig);
+            islands[i].setMigration((generation, population) -> migrate(island, generation, population));
+        }
+    }
+
+    /**
+     * Runs every island on its own thread and waits for them.
+     * Steps:
+     * 1- Start one thread per island
+     * 2- Stop every island as soon as one of them reaches the target
+     * 3- Wait for every island
+     * 4- Publish the final snapshot
+     * @param listener notified once per generation of every island (one island at a time), may be null
+     * @return the best board found by any island, null if the run was cancelled before any island had one
+     */
+    @Override
+    public ChessMatrix run(EvolutionListener listener) {
+        // 1- Start one thread per island
+        Thread[] threads = new Thread[islands.length];
+        RuntimeException[] failures = new RuntimeException[islands.length];
+        for (int i = 0; i < islands.length; i++) {
+            int island = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    ChessMatrix solution = islands[island].run(snapshot -> publish(island, snapshot, listener));
+
+                    // 2- Stop every island as soon as one of them reaches the target
+                    if (solution != null && offer(solution)
+                            && (solution.getConflicts() == 0 || solution.getFitness() >= targetFitness)) {
+                        log("Island " + island + " reached the target, stopping the other islands");
+                        cancel();
+                    }
+                } catch (RuntimeException e) {
+                    failures[island] = e;
+                    cancel();
+                }
+            }, "island-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        // 3- Wait for every island
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+        }
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        // 4- Publish the final snapshot
+        ChessMatrix solution = ultimateSolution.get();
+        log("Island model complete, ultimate solution has " + (solution == null ? "no" : solution.getConflicts())
+                + " conflicts, " + migrantsSent.sum() + " migrants sent, " + migrantsReceived.sum() + " received");
+        if (consoleLogging) {
+            ConsoleLog.flush();
+        }
+        if (listener != null && solution != null) {
+            int generation = 0;
+            for (EvolutionEngine island : islands) {
+                generation = Math.max(generation, island.getGenerationCount());
+            }
+            listener.onGeneration(GenerationSnapshot.of(generation, solution, solution, true));
+        }
+        return solution;
+    }
+
+    /**
+     * publish() method forwards the snapshot of an island to the listener, tagged with the island
+     * and the ultimate conflicts of the whole model (the final snapshots of the islands are not forwarded)
+     */
+    private void publish(int island, GenerationSnapshot snapshot, EvolutionListener listener) {
+        if (listener == null || snapshot.isFinished()) {
+            return;
+        }
+        ChessMatrix ultimate = ultimateSolution.get();
+        int ultimateConflicts = ultimate == null ? snapshot.getUltimateConflicts()
+                : Math.min(ultimate.getConflicts(), snapshot.getUltimateConflicts());
+        synchronized (listenerLock) {
+            listener.onGeneration(snapshot.forIsland(island, ultimateConflicts));
+        }
+    }
+
+    /**
+     * offer() method keeps a board if it is the best one of the model so far
+     * @return true if it is
+     */
+    private boolean offer(ChessMatrix solution) {
+        while (true) {
+            ChessMatrix current = ultimateSolution.get();
+            if (current != null && current.getConflicts() <= solution.getConflicts()) {
+                return false;
+            }
+            if (ultimateSolution.compareAndSet(current, solution)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * migrate() method is the migration step of an island, called on its own thread at the end of every generation
+     * Steps:
+     * 1- Copy the best individuals into a new batch
+     * 2- Put the batch in the mailboxes of the receivers
+     * 3- Take the batches sent to this island and put them in place of its worst individuals
+     * @param island the island
+     * @param generation the generation that just ended
+     * @param population the population of the island
+     */
+    private void migrate(int island, int generation, Population population) {
+        if (migrationInterval == 0 || (generation + 1) % migrationInterval != 0) {
+            return;
+        }
+        int count = islands.length;
+        int[] indexes = indexBuffers[island];
+
+        // 1- Copy the best individuals into a new batch
+        Population batch = new Population(migrationSize);
+        batch.setSize(Math.min(migrationSize, population.getSize()));
+        population.best(batch.getSize(), indexes);
+        for (int i = 0; i < batch.getSize(); i++) {
+            batch.copy(i, population, indexes[i]);
+        }
+
+        // 2- Put the batch in the mailboxes of the receivers
+        switch (topology) {
+            case RING -> send(island, (island + 1) % count, batch);
+            case FULL -> {
+                for (int receiver = 0; receiver < count; receiver++) {
+                    if (receiver != island) {
+                        send(island, receiver, batch);
+                    }
+                }
+            }
+            case RANDOM -> {
+                int receiver = migrationRandoms[island].nextInt(count - 1);
+                send(island, receiver >= island ? receiver + 1 : receiver, batch);
+            }
+        }
+
+        // 3- Take the batches sent to this island and put them in place of its worst individuals
+        for (int sender = 0; sender < count; sender++) {
+            Population received = sender == island ? null : mailboxes.getAndSet(sender * count + island, null);
+            if (received == null) {
+                continue;
+            }
+            int migrants = Math.min(received.getSize(), population.getSize());
+            population.worst(migrants, indexes);
+            for (int i = 0; i < migrants; i++) {
+                population.copy(indexes[i], received, i);
+            }
+            migrantsReceived.add(migrants);
+        }
+    }
+
+    private void send(int sender, int receiver, Population batch) {
+        mailboxes.set(sender * islands.length + receiver, batch);
+        migrantsSent.add(batch.getSize());
+    }
+
+    private void log(String message) {
+        if (consoleLogging) {
+            ConsoleLog.println(message);
+        }
+    }
+
+    @Override
+    public void pause() {
+        for (EvolutionEngine island : islands) {
+            island.pause();
+        }
+    }
+
+    @Override
+    public void resume() {
+        for (EvolutionEngine island : islands) {
+            island.resume();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        for (EvolutionEngine island : islands) {
+            island.cancel();
+        }
+    }
+
+    @Override
+    public boolean isPaused() {
+        return islands[0].isPaused();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return islands[0].isCancelled();
+    }
+
+    /**
+     * getters
+     */
+
+    public int getIslandCount() {
+        return islands.length;
+    }
+
+    public long getMigrantsSent() {
+        return migrantsSent.sum();
+    }
+
+    public long getMigrantsReceived() {
+        return migrantsReceived.sum();
+    }
+}
@@ -0,0 +1,165 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+
+/**
+ * This class scores a placement of the pieces of a {@link ProblemDefinition} on a board of any size,
+ * with the rules of {@link FitnessFunction} (the same score as the bitboards on the standard 8x8 problem).
+ * It never looks at the empty squares: a slider only conflicts with the nearest piece on each of its rays,
+ * so the pieces are grouped by line (row, column, diagonal, anti-diagonal) and sorted along it,
+ * and a slider has a piece on a ray exactly when it is not the first (or the last) one of its line.
+ * The row and column walks also count the lines used by the queens and the rooks for the line penalties,
+ * and the knights look their 8 targets up in the sorted squares.
+ * A board with k pieces costs O(k log k), whatever the board area.
+ * An instance keeps its buffers between boards, it must not be shared between threads.
+ */
+public final class LineEvaluator {
+    private static final int ROWS = 0;
+    private static final int COLUMNS = 1;
+    private static final int DIAGONALS = 2;
+    private static final int ANTI_DIAGONALS = 3;
+    private static final int[][] KNIGHT_MOVES = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    private final int boardSize;                // The number of rows (and columns)
+    private final int pieceCount;               // The pieces on the board (both colours)
+    private final byte[] kinds;                 // The kind of every piece
+    private final FitnessFunction.PenaltyMode penaltyMode; // How the line penalty is added
+    private final long[] keys;                  // (line, position on the line, piece) of every piece, sorted per family
+    private final int[] sortedSquares;          // The occupied squares, sorted, for the knights
+    private final int[] lines = new int[4];     // The lines used by the queens and rooks: queen rows, rook rows, queen columns, rook columns
+    private int penalty;                        // The line penalty of the last board scored
+
+    public LineEvaluator(ProblemDefinition problem, FitnessFunction.PenaltyMode penaltyMode) {
+        this.boardSize = problem.getBoardSize();
+        this.pieceCount = problem.getPieceCount();
+        this.penaltyMode = penaltyMode;
+        kinds = new byte[pieceCount];
+        for (int piece = 0; piece < pieceCount; piece++) {
+            kinds[piece] = (byte) Pieces.kind(problem.getPiece(piece));
+        }
+        keys = new long[pieceCount];
+        sortedSquares = new int[pieceCount];
+    }
+
+    /**
+     * conflicts() method scores a placement
+     * Steps:
+     * 1- Score the sliders line by line in the 4 line families (and count the lines of the queens and rooks)
+     * 2- Score the knights on the sorted squares
+     * 3- Add the line penalties (once per piece or once per board, see FitnessFunction.PenaltyMode)
+     * @param squares the square of every piece (row * boardSize + col), in the order of the problem
+     * @param offset where the placement starts in squares
+     * @return the conflicts
+     */
+    public int conflicts(short[] squares, int offset) {
+        // 1- Score the sliders line by line in the 4 line families (and count the lines of the queens and rooks)
+        int conflicts = 0;
+        Arrays.fill(lines, 0);
+        int queens = 0;
+        int rooks = 0;
+        for (int family = ROWS; family <= ANTI_DIAGONALS; family++) {
+            conflicts += family(squares, offset, family);
+        }
+
+        // 2- Score the knights on the sorted squares
+        for (int piece = 0; piece < pieceCount; piece++) {
+            sortedSquares[piece] = squares[offset + piece];
+            if (kinds[piece] == Pieces.QUEEN) {
+                queens++;
+            } else if (kinds[piece] == Pieces.ROOK) {
+                rooks++;
+            }
+        }
+        Arrays.sort(sortedSquares);
+        for (int piece = 0; piece < pieceCount; piece++) {
+            if (kinds[piece] == Pieces.KNIGHT) {
+                conflicts += knightConflicts(squares[offset + piece]);
+            }
+        }
+
+        // 3- Add the line penalties (once per piece or once per board, see FitnessFunction.PenaltyMode)
+        penalty = (queens - lines[0]) + (queens - lines[2]) + (rooks - lines[1]) + (rooks - lines[3]);
+        if (penaltyMode == FitnessFunction.PenaltyMode.PER_PIECE) {
+            penalty *= pieceCount;
+        }
+        return conflicts + penalty;
+    }
+
+    /**
+     * family() method scores the sliders of one line family
+     * every slider moving along this family gets one conflict for a piece before it on its line and one for a piece after it
+     * the ROWS and COLUMNS families also count the lines used by the queens and the rooks
+     * @return the conflicts
+     */
+    private int family(short[] squares, int offset, int family) {
+        for (int piece = 0; piece < pieceCount; piece++) {
+            int square = squares[offset + piece];
+            int row = square / boardSize;
+            int col = square % boardSize;
+            long line, position;
+            switch (family) {
+                case ROWS -> { line = row; position = col; }
+                case COLUMNS -> { line = col; position = row; }
+                case DIAGONALS -> { line = row - col + boardSize - 1; position = row; }
+                default -> { line = row + col; position = row; }
+            }
+            keys[piece] = line << 32 | position << 16 | piece;
+        }
+        Arrays.sort(keys);
+
+        boolean straight = family == ROWS || family == COLUMNS;
+        int conflicts = 0;
+        int start = 0;
+        while (start < pieceCount) {
+            long line = keys[start] >>> 32;
+            int end = start + 1;
+            while (end < pieceCount && keys[end] >>> 32 == line) {
+                end++;
+            }
+            boolean queenOnLine = false;
+            boolean rookOnLine = false;
+            for (int i = start; i < end; i++) {
+                int kind = kinds[(int) (keys[i] & 0xFFFF)];
+                boolean slides = kind == Pieces.QUEEN || (straight ? kind == Pieces.ROOK : kind == Pieces.BISHOP);
+                if (slides) {
+                    conflicts += (i > start ? 1 : 0) + (i < end - 1 ? 1 : 0);
+                }
+                queenOnLine |= kind == Pieces.QUEEN;
+                rookOnLine |= kind == Pieces.ROOK;
+            }
+            if (straight) {
+                int base = family == ROWS ? 0 : 2;
+                lines[base] += queenOnLine ? 1 : 0;
+                lines[base + 1] += rookOnLine ? 1 : 0;
+            }
+            start = end;
+        }
+        return conflicts;
+    }
+
+    /**
+     * knightConflicts() method counts the occupied squares a knight move away
+     */
+    private int knightConflicts(int square) {
+        int row = square / boardSize;
+        int col = square % boardSize;
+        int conflicts = 0;
+        for (int[] move : KNIGHT_MOVES) {
+            int r = row + move[0];
+            int c = col + move[1];
+            if (r >= 0 && r < boardSize && c >= 0 && c < boardSize
+                    && Arrays.binarySearch(sortedSquares, r * boardSize + c) >= 0) {
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * getPenalty() method returns the line penalty part of the last board scored (used to explain a board)
+     * @return the penalty, as counted in conflicts()
+     */
+    public int getPenalty() {
+        return penalty;
+    }
+}
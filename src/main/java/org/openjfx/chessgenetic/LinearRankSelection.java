@@ -0,0 +1,58 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the linear rank selection: the individuals are sorted by fitness
+ * and the wheel uses their rank instead of their fitness, from 2 - pressure (the worst) to pressure (the best).
+ * The selection pressure then no longer depends on how close the fitness values are.
+ * The wheel itself is a roulette without replacement (see {@link RouletteWheelSelection}).
+ */
+public final class LinearRankSelection implements SelectionStrategy {
+    private final double pressure;              // In [1, 2], 1 is a uniform selection
+    private final Ranking ranking = new Ranking();
+    private final RouletteWheelSelection wheel = new RouletteWheelSelection(RouletteWheelSelection.Mode.WITHOUT_REPLACEMENT);
+    private int[] order = new int[0];
+    private double[] weights = new double[0];
+
+    public LinearRankSelection(double pressure) {
+        if (pressure < 1 || pressure > 2) {
+            throw new IllegalArgumentException("Rank pressure must be in [1, 2]");
+        }
+        this.pressure = pressure;
+    }
+
+    /**
+     * select() method ranks the individuals and spins the wheel with the rank weights
+     * Steps:
+     * 1- Sort the individuals from the worst to the best
+     * 2- Give every individual the weight of its rank
+     * 3- Spin the wheel
+     */
+    @Override
+    public void select(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        if (order.length < size) {
+            order = new int[size];
+            weights = new double[size];
+        }
+
+        // 1- Sort the individuals from the worst to the best
+        ranking.sort(fitness, size, order);
+
+        // 2- Give every individual the weight of its rank
+        for (int rank = 0; rank < size; rank++) {
+            double position = size > 1 ? (double) rank / (size - 1) : 1;
+            weights[order[rank]] = (2 - pressure) + 2 * (pressure - 1) * position;
+        }
+
+        // 3- Spin the wheel (the worst individual has a weight of 0 when the pressure is 2, give it a tiny one)
+        if (pressure == 2) {
+            weights[order[0]] = Double.MIN_NORMAL;
+        }
+        wheel.select(weights, size, selected, count, random);
+    }
+
+    public double getPressure() {
+        return pressure;
+    }
+}
@@ -0,0 +1,50 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+
+/**
+ * This class is a set of longs without boxing (open addressing, linear probing), for the hashes of a population.
+ * It is cleared and refilled every generation, its table is reused and only grows.
+ */
+final class LongHashSet {
+    private long[] table = new long[16];        // 0 marks an empty slot
+    private boolean containsZero;               // The key 0 is kept out of the table
+    private int mask = 15;
+
+    /**
+     * clear() method empties the set and makes room for the given number of keys
+     * @param expected the number of keys that will be added
+     */
+    void clear(int expected) {
+        int needed = Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1);
+        if (table.length < needed) {
+            table = new long[needed];
+            mask = needed - 1;
+        } else {
+            Arrays.fill(table, 0);
+        }
+        containsZero = false;
+    }
+
+    /**
+     * add() method adds a key
+     * @param key the key
+     * @return true if it was not in the set yet
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        return true;
+    }
+}
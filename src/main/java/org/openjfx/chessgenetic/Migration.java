@@ -0,0 +1,16 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This interface is called by an {@link EvolutionEngine} at the end of every generation,
+ * on the engine thread, to exchange individuals with the outside (the other islands of an {@link IslandModel}).
+ */
+@FunctionalInterface
+interface Migration {
+
+    /**
+     * migrate() method may read the population and overwrite some of its individuals
+     * @param generation the generation that just ended
+     * @param population the next population of the engine
+     */
+    void migrate(int generation, Population population);
+}
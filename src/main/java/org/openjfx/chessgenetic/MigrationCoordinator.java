@@ -0,0 +1,251 @@
+package org.openjfx.chessgenetic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class coordinates islands running in other processes (each one a {@link NetworkMigration} node),
+ * on one thread with a NIO selector, with no broker:
+ * - the nodes form a ring in the order they connected, the migrants of a node are relayed to the next one
+ * - every node reports its best board when it improves, the coordinator rescores it with its own fitness function
+ *   (the nodes may use other penalty modes, their conflicts can not be compared) and keeps the global best
+ * - once the global best has at most targetConflicts conflicts (0 by default), STOP is sent to every node
+ * - it returns once every node has disconnected
+ * Run it from the class path, then start the nodes with the --coordinator option of {@link HeadlessRunner}:
+ * <pre>
+ * java -cp target/classes org.openjfx.chessgenetic.MigrationCoordinator --port 7077 [--penalty PER_BOARD]
+ * java -cp target/classes org.openjfx.chessgenetic.HeadlessRunner --coordinator 127.0.0.1:7077 --seed 1
+ * java -cp target/classes org.openjfx.chessgenetic.HeadlessRunner --coordinator 127.0.0.1:7077 --seed 2
+ * </pre>
+ */
+public final class MigrationCoordinator implements Closeable {
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final int targetConflicts;          // The global best at which every node is stopped
+    private final FitnessFunction fitnessFunction; // Rescores the boards reported by the nodes
+    private final boolean consoleLogging;       // Print the progress on the console
+    private final List<FrameChannel> nodes = new ArrayList<>(); // The connected nodes, in ring order
+    private final byte[] bestGenome = new byte[Attacks.SQUARES]; // The global best board
+    private int bestConflicts = Integer.MAX_VALUE; // Its conflicts, MAX_VALUE before the first report
+    private boolean stopping;                   // True once STOP has been sent
+    private int connections;                    // The nodes connected so far
+    private long migrantsRelayed;               // The migrants relayed so far
+
+    /**
+     * Opens the listening socket
+     * @param address where to listen (port 0 for any free port)
+     * @param targetConflicts the global best at which every node is stopped (0, a solution, is the same in every penalty mode)
+     * @param penaltyMode how the reported boards are scored
+     * @param consoleLogging print the progress on the console
+     */
+    public MigrationCoordinator(InetSocketAddress address, int targetConflicts, FitnessFunction.PenaltyMode penaltyMode,
+                                boolean consoleLogging) throws IOException {
+        this.targetConflicts = targetConflicts;
+        this.fitnessFunction = new FitnessFunction(penaltyMode);
+        this.consoleLogging = consoleLogging;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int port = 7077;
+        int targetConflicts = 0;
+        FitnessFunction.PenaltyMode penaltyMode = FitnessFunction.PenaltyMode.PER_PIECE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--bind" -> host = args[i + 1];
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--target-conflicts" -> targetConflicts = Integer.parseInt(args[i + 1]);
+                case "--penalty" -> penaltyMode = FitnessFunction.PenaltyMode.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                default -> {
+                    System.err.println("Usage: MigrationCoordinator [--bind HOST] [--port P] [--target-conflicts C]"
+                            + " [--penalty PER_PIECE|PER_BOARD]");
+                    System.exit(2);
+                }
+            }
+        }
+        try (MigrationCoordinator coordinator = new MigrationCoordinator(new InetSocketAddress(host, port), targetConflicts,
+                penaltyMode, true)) {
+            coordinator.log("Coordinator listening on " + host + ":" + coordinator.getPort());
+            coordinator.run();
+            System.out.println("nodes=" + coordinator.connections);
+            System.out.println("migrants_relayed=" + coordinator.migrantsRelayed);
+            System.out.println("best_conflicts=" + coordinator.getBestConflicts());
+            ChessMatrix best = coordinator.getBest();
+            if (best != null) {
+                for (char[] row : best.getBoard()) {
+                    System.out.println(new String(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * run() method serves the nodes until every node that connected has disconnected
+     * Steps:
+     * 1- Ask for write readiness only on the connections with queued frames
+     * 2- Accept the new nodes (STOP right away if the run is over)
+     * 3- Read the frames of the nodes and write their queued frames
+     */
+    public void run() throws IOException {
+        try {
+            serve();
+        } finally {
+            if (consoleLogging) {
+                ConsoleLog.flush();
+            }
+        }
+    }
+
+    private void serve() throws IOException {
+        while (connections == 0 || !nodes.isEmpty()) {
+            // 1- Ask for write readiness only on the connections with queued frames
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid() && key.attachment() instanceof FrameChannel node) {
+                    key.interestOps(SelectionKey.OP_READ | (node.hasPending() ? SelectionKey.OP_WRITE : 0));
+                }
+            }
+            selector.select();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                // 2- Accept the new nodes (STOP right away if the run is over)
+                if (key.isAcceptable()) {
+                    SocketChannel channel = server.accept();
+                    if (channel != null) {
+                        channel.configureBlocking(false);
+                        FrameChannel node = new FrameChannel(channel);
+                        channel.register(selector, SelectionKey.OP_READ, node);
+                        nodes.add(node);
+                        connections++;
+                        log("Node " + channel.getRemoteAddress() + " connected, " + nodes.size() + " nodes");
+                        if (stopping) {
+                            node.send(MigrationProtocol.bestFrame(MigrationProtocol.STOP, bestConflicts, bestGenome, 0));
+                        }
+                    }
+                    continue;
+                }
+
+                // 3- Read the frames of the nodes and write their queued frames
+                FrameChannel node = (FrameChannel) key.attachment();
+                try {
+                    if (key.isReadable() && !node.read(frame -> handle(node, frame))) {
+                        disconnect(key, node);
+                        continue;
+                    }
+                    if (key.isWritable()) {
+                        node.flush();
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    log("Node dropped: " + e.getMessage());
+                    disconnect(key, node);
+                }
+            }
+        }
+    }
+
+    /**
+     * handle() method processes one frame of a node
+     * @throws IllegalArgumentException if the frame is invalid (the node is dropped)
+     */
+    private void handle(FrameChannel node, ByteBuffer frame) {
+        byte type = MigrationProtocol.checkFrame(frame);
+        frame.get();
+        if (type == MigrationProtocol.MIGRANTS) {
+            // Relay the migrants to the next node of the ring
+            int index = nodes.indexOf(node);
+            if (!stopping && nodes.size() > 1) {
+                frame.position(0);
+                nodes.get((index + 1) % nodes.size()).send(MigrationProtocol.frameOf(frame));
+                migrantsRelayed += Short.toUnsignedInt(frame.getShort(1));
+            }
+        } else if (type == MigrationProtocol.BEST) {
+            // Rescore the board (the conflicts of the node follow its own penalty mode), keep the global best,
+            // stop every node once it is good enough
+            frame.getInt();
+            byte[] genome = new byte[Attacks.SQUARES];
+            CompactGenome.decode(frame, genome, 0);
+            int conflicts = new ChessMatrix(genome, fitnessFunction).getConflicts();
+            if (conflicts < bestConflicts) {
+                System.arraycopy(genome, 0, bestGenome, 0, genome.length);
+                bestConflicts = conflicts;
+                log("New global best: " + conflicts);
+            }
+            if (bestConflicts <= targetConflicts && !stopping) {
+                stopping = true;
+                log("Target reached, stopping " + nodes.size() + " nodes");
+                for (FrameChannel other : nodes) {
+                    other.send(MigrationProtocol.bestFrame(MigrationProtocol.STOP, bestConflicts, bestGenome, 0));
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Unexpected frame type " + type);
+        }
+    }
+
+    private void disconnect(SelectionKey key, FrameChannel node) {
+        key.cancel();
+        node.close();
+        nodes.remove(node);
+        log("Node disconnected, " + nodes.size() + " nodes left");
+    }
+
+    private void log(String message) {
+        if (consoleLogging) {
+            ConsoleLog.println(message);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FrameChannel node : nodes) {
+            node.close();
+        }
+        server.close();
+        selector.close();
+    }
+
+    /**
+     * getters
+     */
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public int getBestConflicts() {
+        return bestConflicts;
+    }
+
+    /**
+     * getBest() method returns the global best board, scored like every reported board
+     * @return the board, null before the first report
+     */
+    public ChessMatrix getBest() {
+        return bestConflicts == Integer.MAX_VALUE ? null : new ChessMatrix(bestGenome.clone(), fitnessFunction);
+    }
+
+    public long getMigrantsRelayed() {
+        return migrantsRelayed;
+    }
+}
@@ -0,0 +1,118 @@
+package org.openjfx.chessgenetic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class is the wire format of the multi-process islands ({@link NetworkMigration}, {@link MigrationCoordinator}).
+ * Every message is a frame: an int length (of what follows), a byte type, then the payload.
+ * - MIGRANTS (node to coordinator, relayed to the next node): a short count then count compact genomes
+ * - BEST (node to coordinator): the int conflicts of the best board of the node, then its compact genome
+ * - STOP (coordinator to every node): the same payload as BEST, the global best board, the run is over
+ * Genomes travel as {@link CompactGenome}s, a receiver always rescores them.
+ */
+public final class MigrationProtocol {
+    public static final byte MIGRANTS = 1;
+    public static final byte BEST = 2;
+    public static final byte STOP = 3;
+
+    public static final int MAX_FRAME = 1 << 20;    // A frame (type + payload) can not be longer than this
+    public static final int MAX_MIGRANTS = 0xFFFF;  // The count of a MIGRANTS frame is an unsigned short
+
+    private MigrationProtocol() {
+    }
+
+    /**
+     * migrantsFrame() method builds a MIGRANTS frame from some individuals of a population
+     * @param population the population
+     * @param indexes the individuals to send
+     * @param count the number of individuals
+     * @return the frame, ready to be written
+     */
+    public static ByteBuffer migrantsFrame(Population population, int[] indexes, int count) {
+        if (count > MAX_MIGRANTS) {
+            throw new IllegalArgumentException("Too many migrants: " + count + " (at most " + MAX_MIGRANTS + ")");
+        }
+        int length = 1 + Short.BYTES + count * CompactGenome.LENGTH;
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).put(MIGRANTS).putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            CompactGenome.encode(population.getGenomes(), population.offset(indexes[i]), frame);
+        }
+        return frame.flip();
+    }
+
+    /**
+     * bestFrame() method builds a BEST or STOP frame
+     * @param type BEST or STOP
+     * @param conflicts the conflicts of the board
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @return the frame, ready to be written
+     */
+    public static ByteBuffer bestFrame(byte type, int conflicts, byte[] genes, int offset) {
+        int length = 1 + Integer.BYTES + CompactGenome.LENGTH;
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + length);
+        frame.putInt(length).put(type).putInt(conflicts);
+        CompactGenome.encode(genes, offset, frame);
+        return frame.flip();
+    }
+
+    /**
+     * nextFrame() method cuts the next complete frame out of a read buffer
+     * @param buffer the bytes read so far, in read mode
+     * @return the frame without its length (type + payload), null if it is not complete yet
+     * @throws IllegalArgumentException if the length is invalid (the connection must be closed)
+     */
+    public static ByteBuffer nextFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > MAX_FRAME) {
+            throw new IllegalArgumentException("Invalid frame length " + length);
+        }
+        if (buffer.remaining() < Integer.BYTES + length) {
+            return null;
+        }
+        buffer.position(buffer.position() + Integer.BYTES);
+        ByteBuffer frame = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return frame;
+    }
+
+    /**
+     * checkFrame() method checks the type and the payload length of a frame returned by nextFrame(), before it is read
+     * @param frame the type + payload, at position 0
+     * @return the type
+     * @throws IllegalArgumentException if the type is unknown or the payload is too short or too long for it
+     * (the connection must be closed)
+     */
+    public static byte checkFrame(ByteBuffer frame) {
+        byte type = frame.get(0);
+        int payload = frame.remaining() - 1;
+        if (type == MIGRANTS) {
+            if (payload < Short.BYTES
+                    || payload != Short.BYTES + Short.toUnsignedInt(frame.getShort(1)) * CompactGenome.LENGTH) {
+                throw new IllegalArgumentException("Invalid migrants frame of " + payload + " bytes");
+            }
+        } else if (type == BEST || type == STOP) {
+            if (payload != Integer.BYTES + CompactGenome.LENGTH) {
+                throw new IllegalArgumentException("Invalid best frame of " + payload + " bytes");
+            }
+        } else {
+            throw new IllegalArgumentException("Unexpected frame type " + type);
+        }
+        return type;
+    }
+
+    /**
+     * frameOf() method puts the length back in front of a frame returned by nextFrame(), to relay it
+     * @param frame the type + payload
+     * @return a new buffer holding the whole frame, ready to be written
+     */
+    public static ByteBuffer frameOf(ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(Integer.BYTES + frame.remaining());
+        copy.putInt(frame.remaining()).put(frame.duplicate());
+        return copy.flip();
+    }
+}
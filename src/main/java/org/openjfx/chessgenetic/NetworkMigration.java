@@ -0,0 +1,242 @@
+package org.openjfx.chessgenetic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class connects an {@link EvolutionEngine} to a {@link MigrationCoordinator}, so that engines in different
+ * processes (or on different hosts) run as the islands of one model:
+ * - every migration interval the best individuals are sent to the coordinator, which relays them to the next node
+ * - the migrants relayed to this node are rescored and put in place of the worst individuals (the latest batch wins)
+ * - the best board is reported whenever it improves, and the engine is cancelled when the coordinator says STOP
+ * The socket is served by its own thread with a NIO selector, the engine thread never waits for the network.
+ * If the coordinator goes away the engine simply goes on alone.
+ */
+public final class NetworkMigration implements Migration, Closeable {
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final EvolutionEngine engine;       // The engine of this node
+    private final FitnessFunction fitnessFunction; // Rescores the migrants
+    private final int migrationInterval;        // The generations between two migrations, 0 for none
+    private final int migrationSize;            // The individuals sent per migration
+    private final FrameChannel connection;      // The connection to the coordinator
+    private final Selector selector;
+    private final Thread ioThread;              // Serves the connection
+    private final AtomicReference<ByteBuffer> incoming = new AtomicReference<>(); // The last batch of migrants received
+    private final AtomicReference<ChessMatrix> globalBest = new AtomicReference<>(); // The board sent with STOP
+    private int[] indexes;                      // The best / worst indexes, grown if needed
+    private final byte[] genome = new byte[Population.GENOME_LENGTH]; // A decoded migrant
+    private final ChessMatrix cursor;           // Rescores the migrants
+    private int reportedConflicts = Integer.MAX_VALUE; // The best conflicts sent to the coordinator so far
+    private volatile boolean closing;           // True once close() has been called
+    private long migrantsSent;
+    private long migrantsReceived;
+
+    private NetworkMigration(SocketChannel channel, EvolutionEngine engine, EvolutionConfig config) throws IOException {
+        this.engine = engine;
+        fitnessFunction = new FitnessFunction(config.getPenaltyMode());
+        migrationInterval = config.getMigrationInterval();
+        migrationSize = config.getMigrationSize();
+        indexes = new int[migrationSize];
+        cursor = new ChessMatrix(fitnessFunction);
+        connection = new FrameChannel(channel);
+        selector = Selector.open();
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+        ioThread = new Thread(this::serve, "migration-io");
+        ioThread.setDaemon(true);
+    }
+
+    /**
+     * connect() method connects an engine to a coordinator, the engine then migrates at the end of its generations
+     * @param coordinator the address of the coordinator
+     * @param engine the engine, not running yet
+     * @param config the config of the engine (migration interval and size, penalty mode)
+     * @return the connection, to close once the run has ended
+     * @throws IOException if the coordinator can not be reached
+     */
+    public static NetworkMigration connect(InetSocketAddress coordinator, EvolutionEngine engine, EvolutionConfig config) throws IOException {
+        SocketChannel channel = SocketChannel.open(coordinator);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        NetworkMigration migration = new NetworkMigration(channel, engine, config);
+        engine.setMigration(migration);
+        migration.ioThread.start();
+        return migration;
+    }
+
+    /**
+     * migrate() method is called on the engine thread at the end of every generation
+     * Steps:
+     * 1- Report the best board when it improves
+     * 2- Every migration interval, send the best individuals
+     * 3- Put the last migrants received in place of the worst individuals
+     */
+    @Override
+    public void migrate(int generation, Population population) {
+        // 1- Report the best board when it improves
+        int best = population.bestIndex();
+        report(population.getConflicts(best), population.getGenomes(), population.offset(best));
+
+        if (migrationInterval == 0 || (generation + 1) % migrationInterval != 0) {
+            return;
+        }
+
+        // 2- Every migration interval, send the best individuals
+        int count = Math.min(Math.min(migrationSize, population.getSize()), MigrationProtocol.MAX_MIGRANTS);
+        population.best(count, indexes);
+        if (send(MigrationProtocol.migrantsFrame(population, indexes, count))) {
+            migrantsSent += count;
+        }
+
+        // 3- Put the last migrants received in place of the worst individuals
+        ByteBuffer migrants = incoming.getAndSet(null);
+        if (migrants != null) {
+            int received = Math.min(Short.toUnsignedInt(migrants.getShort()), population.getSize());
+            if (indexes.length < received) {
+                indexes = new int[received];
+            }
+            population.worst(received, indexes);
+            for (int i = 0; i < received; i++) {
+                CompactGenome.decode(migrants, genome, 0);
+                cursor.load(genome, 0);
+                population.store(indexes[i], cursor);
+            }
+            migrantsReceived += received;
+        }
+    }
+
+    /**
+     * finish() method reports the final board of the engine (the run may have ended before its last migration step)
+     * @param solution the ultimate solution of the engine, may be null
+     */
+    public void finish(ChessMatrix solution) {
+        if (solution != null) {
+            report(solution.getConflicts(), solution.getGenome(), 0);
+        }
+    }
+
+    private void report(int conflicts, byte[] genes, int offset) {
+        if (conflicts < reportedConflicts) {
+            reportedConflicts = conflicts;
+            send(MigrationProtocol.bestFrame(MigrationProtocol.BEST, conflicts, genes, offset));
+        }
+    }
+
+    /**
+     * send() method queues a frame for the I/O thread
+     * @param frame the frame
+     * @return false if the connection is closed (lost or closed), the frame is dropped
+     */
+    private boolean send(ByteBuffer frame) {
+        if (!connection.send(frame)) {
+            return false;
+        }
+        selector.wakeup();
+        return true;
+    }
+
+    /**
+     * serve() method is the loop of the I/O thread, until close() and every queued frame is written
+     * Steps:
+     * 1- Ask for write readiness only with queued frames
+     * 2- Read the frames of the coordinator
+     * 3- Write the queued frames
+     */
+    private void serve() {
+        try {
+            while (!closing || connection.hasPending()) {
+                // 1- Ask for write readiness only with queued frames
+                SelectionKey key = connection.getChannel().keyFor(selector);
+                key.interestOps(SelectionKey.OP_READ | (connection.hasPending() ? SelectionKey.OP_WRITE : 0));
+                selector.select();
+                selector.selectedKeys().clear();
+
+                // 2- Read the frames of the coordinator
+                if (key.isReadable() && !connection.read(this::handle)) {
+                    break;
+                }
+
+                // 3- Write the queued frames
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (!closing) {
+                System.err.println("Migration connection lost, going on alone: " + e.getMessage());
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * handle() method processes one frame of the coordinator, on the I/O thread
+     */
+    private void handle(ByteBuffer frame) {
+        byte type = MigrationProtocol.checkFrame(frame);
+        frame.get();
+        if (type == MigrationProtocol.MIGRANTS) {
+            // The frame is a view of the read buffer: check the genomes and keep a copy of the payload
+            ByteBuffer payload = ByteBuffer.allocate(frame.remaining()).put(frame).flip();
+            int count = Short.toUnsignedInt(payload.getShort());
+            byte[] check = new byte[Population.GENOME_LENGTH];
+            for (int i = 0; i < count; i++) {
+                CompactGenome.decode(payload, check, 0);
+            }
+            incoming.set(payload.rewind());
+        } else if (type == MigrationProtocol.STOP) {
+            frame.getInt();
+            byte[] best = new byte[Population.GENOME_LENGTH];
+            CompactGenome.decode(frame, best, 0);
+            globalBest.set(new ChessMatrix(best, fitnessFunction));
+            engine.cancel();
+        } else {
+            throw new IllegalArgumentException("Unexpected frame type " + type);
+        }
+    }
+
+    /**
+     * close() method writes the frames still queued (for a few seconds at most) and closes the connection
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        selector.wakeup();
+        try {
+            ioThread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.close();
+            selector.close();
+        }
+    }
+
+    /**
+     * getters
+     */
+
+    /**
+     * getGlobalBest() method returns the best board of every node, sent by the coordinator with STOP
+     * @return the board (rescored here), null if the coordinator did not stop this node
+     */
+    public ChessMatrix getGlobalBest() {
+        return globalBest.get();
+    }
+
+    public long getMigrantsSent() {
+        return migrantsSent;
+    }
+
+    public long getMigrantsReceived() {
+        return migrantsReceived;
+    }
+}
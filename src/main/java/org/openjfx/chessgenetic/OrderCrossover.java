@@ -0,0 +1,43 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the order crossover (OX1), on each half of the board.
+ * A random segment is copied from one parent, the other squares are filled after the segment (wrapping around)
+ * with the labels left, in the order they have in the other parent.
+ * @see <a href="https://en.wikipedia.org/wiki/Crossover_(genetic_algorithm)#Order_crossover_(OX1)">OX1</a>
+ */
+public final class OrderCrossover extends PermutationCrossover {
+
+    @Override
+    void crossHalf(int[] parent1, int[] parent2, int[] child1, int[] child2, RandomGenerator random) {
+        int from = random.nextInt(HALF);
+        int to = from + 1 + random.nextInt(HALF - from);
+        keepOrder(parent1, parent2, position1, from, to, child1);
+        keepOrder(parent2, parent1, position2, from, to, child2);
+    }
+
+    /**
+     * keepOrder() method builds one child: the segment of the donor, the rest in the order of the other parent
+     * @param donor the parent giving the segment
+     * @param other the parent giving the order of the rest
+     * @param donorPositions where each label is in the donor
+     * @param from the first square of the segment
+     * @param to the end of the segment (excluded)
+     * @param child where the child is written
+     */
+    private static void keepOrder(int[] donor, int[] other, int[] donorPositions, int from, int to, int[] child) {
+        System.arraycopy(donor, from, child, from, to - from);
+        int square = to % HALF;
+        for (int n = 0; n < HALF; n++) {
+            int label = other[(to + n) % HALF];
+            int position = donorPositions[label];
+            if (position >= from && position < to) {
+                continue;
+            }
+            child[square] = label;
+            square = (square + 1) % HALF;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the base of the order based crossovers (PMX, OX, cycle, uniform swap).
+ * Those operators work on permutations of distinct values, but a half board is a permutation of a multiset
+ * (27 empty squares, 2 queens...), so every gene is labelled with its occurrence number first:
+ * the k-th empty square of a half is (EMPTY, k), the second queen is (QUEEN, 1)...
+ * A half is then a permutation of 32 distinct labels, the same labels in both parents,
+ * and any permutation of them decodes back to the same pieces: the multiset and the halves are always kept.
+ * The two halves are crossed independently.
+ */
+abstract class PermutationCrossover implements CrossoverOperator {
+    static final int HALF = Attacks.SQUARES / 2;
+    private static final int OCCURRENCE_BITS = 5;               // An occurrence number is in [0, 32)
+    static final int LABELS = Pieces.CODE_COUNT << OCCURRENCE_BITS;
+
+    private final int[] labels1 = new int[HALF];    // The labels of the half of the first parent
+    private final int[] labels2 = new int[HALF];    // The labels of the half of the second parent
+    private final int[] out1 = new int[HALF];       // The labels of the half of the first child
+    private final int[] out2 = new int[HALF];       // The labels of the half of the second child
+    private final int[] occurrences = new int[Pieces.CODE_COUNT];
+    final int[] position1 = new int[LABELS];        // Where each label is in labels1
+    final int[] position2 = new int[LABELS];        // Where each label is in labels2
+
+    @Override
+    public final void cross(byte[] parents, int parent1, int parent2, byte[] children, int child1, int child2, RandomGenerator random) {
+        for (int half = 0; half < Attacks.SQUARES; half += HALF) {
+            label(parents, parent1 + half, labels1, position1);
+            label(parents, parent2 + half, labels2, position2);
+            crossHalf(labels1, labels2, out1, out2, random);
+            decode(out1, children, child1 + half);
+            decode(out2, children, child2 + half);
+        }
+    }
+
+    /**
+     * crossHalf() method crosses two permutations of the same 32 labels
+     * position1 and position2 hold where each label is in the two parents, the method may change them
+     * @param parent1 the labels of the first parent
+     * @param parent2 the labels of the second parent
+     * @param child1 where the first child is written
+     * @param child2 where the second child is written
+     * @param random the random generator
+     */
+    abstract void crossHalf(int[] parent1, int[] parent2, int[] child1, int[] child2, RandomGenerator random);
+
+    /**
+     * label() method labels the genes of a half with their occurrence numbers
+     */
+    private void label(byte[] genes, int offset, int[] labels, int[] positions) {
+        Arrays.fill(occurrences, 0);
+        for (int i = 0; i < HALF; i++) {
+            int code = genes[offset + i];
+            int label = (code << OCCURRENCE_BITS) | occurrences[code]++;
+            labels[i] = label;
+            positions[label] = i;
+        }
+    }
+
+    private static void decode(int[] labels, byte[] genes, int offset) {
+        for (int i = 0; i < HALF; i++) {
+            genes[offset + i] = (byte) (labels[i] >>> OCCURRENCE_BITS);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.openjfx.chessgenetic;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class holds the images of the eight pieces (white and black queen, rook, knight and bishop),
+ * decoded once the first time they are needed and shared by every board view.
+ */
+public final class PieceSprites {
+    private static final String FOLDER = "/org/openjfx/chessgenetic/";
+
+    private static Image[] sprites;             // The image of every piece code, null for EMPTY or a missing image
+
+    private PieceSprites() {
+    }
+
+    /**
+     * get() method returns the image of a piece
+     * @param piece the piece char of the board view ('e' for an empty cell)
+     * @return the image, null for an empty cell or if the image of the piece could not be loaded
+     */
+    public static synchronized Image get(char piece) {
+        if (sprites == null) {
+            sprites = load();
+        }
+        return sprites[Pieces.fromChar(piece)];
+    }
+
+    /**
+     * load() method decodes the eight images
+     * @return the images, by piece code
+     */
+    private static Image[] load() {
+        Image[] images = new Image[Pieces.CODE_COUNT];
+        for (byte kind = Pieces.QUEEN; kind <= Pieces.KNIGHT; kind++) {
+            images[kind] = load(FOLDER + "white" + Pieces.toChar(kind) + ".png");
+            images[kind | Pieces.BLACK] = load(FOLDER + "black" + Pieces.toChar(kind) + ".png");
+        }
+        return images;
+    }
+
+    private static Image load(String path) {
+        try (InputStream stream = PieceSprites.class.getResourceAsStream(path)) {
+            if (stream == null) {
+                System.err.println("Could not find image: " + path);
+                return null;
+            }
+            Image image = new Image(stream);
+            if (image.isError()) {
+                System.err.println("Could not decode image: " + path);
+                return null;
+            }
+            return image;
+        } catch (IOException e) {
+            System.err.println("Could not read image: " + path);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class holds the byte codes used by the compact genome of a {@link ChessMatrix}.
+ * The low 3 bits are the piece kind, the {@link #BLACK} bit is the colour, 0 is an empty cell.
+ * The char codes are the ones used by the UI ('e' empty, upper case white, lower case black, 'K' knight).
+ */
+public final class Pieces {
+    public static final byte EMPTY = 0;
+    public static final byte QUEEN = 1;
+    public static final byte ROOK = 2;
+    public static final byte BISHOP = 3;
+    public static final byte KNIGHT = 4;
+    public static final byte BLACK = 8;
+
+    public static final int KIND_MASK = 7;
+    public static final int CODE_COUNT = 16;   // Every code fits in [0, 16)
+
+    private static final char[] CHARS = new char[CODE_COUNT];
+
+    static {
+        java.util.Arrays.fill(CHARS, 'e');
+        CHARS[QUEEN] = 'Q';
+        CHARS[ROOK] = 'R';
+        CHARS[BISHOP] = 'B';
+        CHARS[KNIGHT] = 'K';
+        for (int kind = QUEEN; kind <= KNIGHT; kind++) {
+            CHARS[kind | BLACK] = Character.toLowerCase(CHARS[kind]);
+        }
+    }
+
+    private Pieces() {
+    }
+
+    /**
+     * kind() method strips the colour of a piece code
+     * @param code the piece code
+     * @return QUEEN, ROOK, BISHOP, KNIGHT or EMPTY
+     */
+    public static int kind(byte code) {
+        return code & KIND_MASK;
+    }
+
+    public static boolean isBlack(byte code) {
+        return (code & BLACK) != 0;
+    }
+
+    /**
+     * toChar() method converts a piece code to the char used by the board view
+     * @param code the piece code
+     * @return the piece char ('e' for an empty cell)
+     */
+    public static char toChar(byte code) {
+        return CHARS[code];
+    }
+
+    /**
+     * fromChar() method converts a board view char to its piece code
+     * @param piece the piece char
+     * @return the piece code (EMPTY for 'e' or any unknown char)
+     */
+    public static byte fromChar(char piece) {
+        byte kind = switch (Character.toUpperCase(piece)) {
+            case 'Q' -> QUEEN;
+            case 'R' -> ROOK;
+            case 'B' -> BISHOP;
+            case 'K' -> KNIGHT;
+            default -> EMPTY;
+        };
+        if (kind != EMPTY && Character.isLowerCase(piece)) {
+            kind |= BLACK;
+        }
+        return kind;
+    }
+}
@@ -0,0 +1,161 @@
+package org.openjfx.chessgenetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a scored board of a {@link ProblemDefinition}, stored as the square of every piece
+ * (the genome of a {@link PlacementEngine}), so its size grows with the pieces, not with the board area.
+ * It is immutable: the char view is only built when somebody asks for it.
+ */
+public final class Placement implements Solution {
+    private static final int[][] DIAGONALS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] STRAIGHTS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] KNIGHT_MOVES = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    private final ProblemDefinition problem;    // The problem this board belongs to
+    private final short[] squares;              // The square of every piece (row * boardSize + col)
+    private final FitnessFunction.PenaltyMode penaltyMode; // How the line penalty was added
+    private final int conflicts;
+    private final double fitness;
+    private char[][] board;                     // Lazy char view of the board, null until asked
+
+    /**
+     * Creates a board from a placement
+     * @param problem the problem
+     * @param squares the square of every piece, copied from offset
+     * @param offset where the placement starts in squares
+     * @param conflicts its conflicts (see LineEvaluator)
+     * @param penaltyMode how the line penalty was added
+     */
+    public Placement(ProblemDefinition problem, short[] squares, int offset, int conflicts,
+                     FitnessFunction.PenaltyMode penaltyMode) {
+        this.problem = problem;
+        this.squares = new short[problem.getPieceCount()];
+        System.arraycopy(squares, offset, this.squares, 0, this.squares.length);
+        this.penaltyMode = penaltyMode;
+        this.conflicts = conflicts;
+        this.fitness = FitnessFunction.fitness(conflicts);
+    }
+
+    /**
+     * explainConflicts() method lists every conflict of the board in a readable form
+     * it walks the rays square by square, so only call it on boards somebody actually looks at
+     * Steps:
+     * 1- Index the pieces by square
+     * 2- List the attacks of every piece (the same rules as FitnessFunction)
+     * 3- Add the line penalties (counted once per piece or once per board, see FitnessFunction.PenaltyMode)
+     * @return one line per conflict, e.g. "Knight (0,1) -> (2,2)"
+     */
+    @Override
+    public List<String> explainConflicts() {
+        List<String> explanation = new ArrayList<>();
+
+        // 1- Index the pieces by square
+        int size = problem.getBoardSize();
+        boolean[] occupied = new boolean[problem.getSquares()];
+        for (short square : squares) {
+            occupied[square] = true;
+        }
+
+        // 2- List the attacks of every piece (the same rules as FitnessFunction)
+        for (int piece = 0; piece < squares.length; piece++) {
+            int kind = Pieces.kind(problem.getPiece(piece));
+            int row = squares[piece] / size;
+            int col = squares[piece] % size;
+            if (kind == Pieces.QUEEN || kind == Pieces.BISHOP) {
+                explainRays(row, col, DIAGONALS, "Diagonal", occupied, explanation);
+            }
+            if (kind == Pieces.QUEEN || kind == Pieces.ROOK) {
+                explainRays(row, col, STRAIGHTS, "Straight", occupied, explanation);
+            }
+            if (kind == Pieces.KNIGHT) {
+                for (int[] move : KNIGHT_MOVES) {
+                    int r = row + move[0];
+                    int c = col + move[1];
+                    if (r >= 0 && r < size && c >= 0 && c < size && occupied[r * size + c]) {
+                        explanation.add(describe("Knight", row, col, r, c));
+                    }
+                }
+            }
+        }
+
+        // 3- Add the line penalties (counted once per piece or once per board, see FitnessFunction.PenaltyMode)
+        LineEvaluator evaluator = new LineEvaluator(problem, penaltyMode);
+        evaluator.conflicts(squares, 0);
+        if (evaluator.getPenalty() > 0) {
+            explanation.add(String.format("Queen/Rook line penalties: %d (%s)", evaluator.getPenalty(), penaltyMode));
+        }
+
+        return explanation;
+    }
+
+    private void explainRays(int row, int col, int[][] directions, String line, boolean[] occupied,
+                             List<String> explanation) {
+        int size = problem.getBoardSize();
+        for (int[] direction : directions) {
+            int r = row + direction[0];
+            int c = col + direction[1];
+            while (r >= 0 && r < size && c >= 0 && c < size && !occupied[r * size + c]) {
+                r += direction[0];
+                c += direction[1];
+            }
+            if (r >= 0 && r < size && c >= 0 && c < size) {
+                explanation.add(describe(line, row, col, r, c));
+            }
+        }
+    }
+
+    private static String describe(String line, int fromRow, int fromCol, int toRow, int toCol) {
+        return String.format("%s (%d,%d) -> (%d,%d)", line, fromRow, fromCol, toRow, toCol);
+    }
+
+    /**
+     * getters
+     */
+
+    public ProblemDefinition getProblem() {
+        return problem;
+    }
+
+    /**
+     * getSquare() method returns where a piece stands
+     * @param piece the piece index, in the order of the problem
+     * @return its square, row * boardSize + col
+     */
+    public int getSquare(int piece) {
+        return squares[piece];
+    }
+
+    @Override
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    @Override
+    public double getFitness() {
+        return fitness;
+    }
+
+    /**
+     * getBoard() method returns the char view of the board ('e' for empty cells)
+     * it is built the first time it is asked for
+     * @return the board
+     */
+    @Override
+    public char[][] getBoard() {
+        if (board == null) {
+            int size = problem.getBoardSize();
+            char[][] view = new char[size][size];
+            for (char[] row : view) {
+                Arrays.fill(row, 'e');
+            }
+            for (int piece = 0; piece < squares.length; piece++) {
+                view[squares[piece] / size][squares[piece] % size] = Pieces.toChar(problem.getPiece(piece));
+            }
+            board = view;
+        }
+        return board;
+    }
+}
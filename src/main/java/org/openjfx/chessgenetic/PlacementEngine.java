@@ -0,0 +1,394 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class runs the genetic algorithm on any {@link ProblemDefinition} (board size and pieces).
+ * A genome is the square of every piece (see {@link Placement}) instead of one cell per square,
+ * and it is scored by a {@link LineEvaluator}, so a generation costs O(pieces log pieces) per individual
+ * whatever the board area: a 64x64 board with 32 pieces is as cheap to evolve as an 8x8 one with 32 pieces.
+ * The operators are the ones of the {@link EvolutionEngine} with the default settings:
+ * the selection strategy of the config, the half swap crossover (the white half of one parent with the black half
+ * of the other) and a mutation that moves a piece to another square of its half (swapping it with the piece there).
+ * The genomes are stored in two preallocated short arrays that are swapped every generation,
+ * and the offspring are built in parallel chunks with their own random generators (see {@link RandomStreams}),
+ * so a seeded run gives the same result with any number of threads.
+ * It can be paused, resumed and cancelled from any other thread.
+ */
+public class PlacementEngine extends AbstractEngine<Placement> {
+    private final ProblemDefinition problem;    // The board size and the pieces
+    private final int pieceCount;               // The genes of a genome
+    private final int populationSize;           // The population size
+    private final int maxGenerations;           // The maximum number of generations
+    private final double targetFitness;         // The fitness at which the run stops
+    private final FitnessFunction.PenaltyMode penaltyMode; // How the line penalty is added
+    private final RandomStreams randomStreams;  // The random generators of the run
+    private final SelectionStrategy selection;  // The parent selection strategy
+    private final double crossoverProbability;  // The probability that a pair is crossed (otherwise copied)
+    private final double mutationProbability;   // The probability that a child is mutated
+    private final int eliteCount;               // The best individuals carried over untouched
+    private int[] selectedBuffer = new int[0];  // The indexes picked by the selection
+    private long[] rankBuffer = new long[0];    // (conflicts, index) of every individual, to find the elite
+
+    private short[] genomes;                    // The genome of individual i is at [i * pieceCount, (i + 1) * pieceCount)
+    private int[] conflicts;                    // The conflicts of every individual
+    private double[] fitness;                   // The fitness of every individual
+    private short[] nextGenomes;                // The offspring, written while the population is read
+    private int[] nextConflicts;
+    private double[] nextFitness;
+    private int size;                           // The number of individuals in use
+    private Placement ultimateSolution;         // The ultimate solution found
+    private int generationCount;                // The current generation count
+
+    public PlacementEngine(EvolutionConfig config) {
+        super(config);
+        this.problem = config.getProblem();
+        this.pieceCount = problem.getPieceCount();
+        this.populationSize = config.getPopulationSize();
+        this.maxGenerations = config.getMaxGenerations();
+        this.targetFitness = config.getTargetFitness();
+        this.penaltyMode = config.getPenaltyMode();
+        this.randomStreams = new RandomStreams(config.getSeed());
+        this.selection = config.getSelectionType().create(config);
+        this.crossoverProbability = config.getCrossoverProbability();
+        this.mutationProbability = config.getMutationProbability();
+        this.eliteCount = config.getEliteCount();
+        if ((long) populationSize * pieceCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Population too large for " + pieceCount + " pieces: " + populationSize);
+        }
+    }
+
+    /**
+     *  Runs the genetic algorithm.
+     *  Steps:
+     *  1- Initialize generationCount, ultimateSolution and the population buffers
+     *  2- Generate pop size initial population
+     *  3- Find initial best solution
+     *  4- Run evolution loop until we reach either the max gen, the target fitness or conflict = 0
+     *      4.1 Wait here while the run is paused
+     *      4.2 Find the best solution in current generation, update the ultimate solution
+     *      4.3 Publish the generation (with the statistics of the population) to the listener
+     *      4.4 Selection step: Select parents for crossover
+     *      4.5 Crossover and mutation steps: Create offspring from parent pairs
+     *      4.6 Replacement step: the offspring and the elite become the population
+     *  5- Publish the final snapshot
+     * @param listener notified once per generation, may be null
+     * @return the ultimate solution, null if the run was cancelled before the initial population was ready
+     */
+    @Override
+    Placement evolve(EvolutionListener listener) {
+        // 1- Initialize generationCount, ultimateSolution and the population buffers
+        generationCount = 0;
+        ultimateSolution = null;
+        // one spare individual: with an odd number of children, the second child of the last pair is bred there and left out
+        genomes = new short[(populationSize + 1) * pieceCount];
+        nextGenomes = new short[(populationSize + 1) * pieceCount];
+        conflicts = new int[populationSize + 1];
+        nextConflicts = new int[populationSize + 1];
+        fitness = new double[populationSize + 1];
+        nextFitness = new double[populationSize + 1];
+
+        // 2- Generate pop size initial population
+        initialize();
+        if (cancelled) {
+            return null;
+        }
+
+        // Console display (Debugging)
+        log("Starting placement evolution on problem " + problem + " with population size: " + populationSize
+                + ", max generations: " + maxGenerations + ", seed: " + randomStreams.getSeed() + ", threads: " + threads);
+
+        // 3- Find initial best solution
+        int bestSolution = bestIndex();
+        ultimateSolution = toPlacement(bestSolution);
+
+        // 4- Run evolution loop until we reach either the max gen, the target fitness or conflict = 0
+        while (generationCount < maxGenerations && ultimateSolution.getConflicts() > 0
+                && ultimateSolution.getFitness() < targetFitness) {
+            // 4.1 Wait here while the run is paused
+            if (!awaitResume()) {
+                break;
+            }
+
+            // 4.2 Find the best solution in current generation, update the ultimate solution
+            bestSolution = bestIndex();
+            int bestConflicts = conflicts[bestSolution];
+            if (bestConflicts < ultimateSolution.getConflicts()) {
+                log("New ultimate solution found: " + bestConflicts); // Console display (Debugging)
+                ultimateSolution = toPlacement(bestSolution);
+            }
+
+            // Console display (Debugging)
+            log("Generation: " + generationCount + ", Best solution: " + bestConflicts);
+
+            // 4.3 Publish the generation (with the statistics of the population) to the listener
+            if (listener != null) {
+                listener.onGeneration(snapshot(toPlacement(bestSolution), false));
+            }
+
+            // 4.4 Selection step: Select parents for crossover
+            RandomGenerator selectionRandom = randomStreams.stream(generationCount, RandomStreams.SELECTION, 0);
+            // with an odd population picked whole (without replacement), the last individual is paired with the first pick
+            int children = populationSize - eliteCount;
+            int numPairs = Math.min((children + 1) / 2, (size + 1) / 2);
+            int picks = Math.min(numPairs * 2, size);
+            if (selectedBuffer.length < size + 1) {
+                selectedBuffer = new int[size + 1];
+            }
+            selection.select(fitness, size, selectedBuffer, picks, selectionRandom);
+            if (picks < numPairs * 2) {
+                selectedBuffer[picks] = selectedBuffer[0];
+            }
+
+            // 4.5 Crossover and mutation steps: Create offspring from parent pairs
+            crossOver(numPairs);
+
+            // 4.6 Replacement step: the offspring that fit and the elite become the population
+            children = Math.min(children, numPairs * 2);
+            carryElite(children);
+            size = children + eliteCount;
+            swapBuffers();
+
+            // Increment generation count
+            generationCount++;
+        }
+
+        // Evolution complete - display final solution
+        log("Evolution complete after " + generationCount + " generations");
+        log("Ultimate solution has " + ultimateSolution.getConflicts() + " conflicts");
+        if (consoleLogging) {
+            for (String conflict : ultimateSolution.explainConflicts()) {
+                log("  " + conflict);
+            }
+        }
+
+        // 5- Publish the final snapshot
+        if (listener != null) {
+            listener.onGeneration(snapshot(ultimateSolution, true));
+        }
+
+        return ultimateSolution;
+    }
+
+    /**
+     * initialize() method generates the random initial population, in parallel chunks
+     * every piece goes to a random free square of its half
+     */
+    private void initialize() {
+        size = populationSize;
+        forEachChunk(populationSize, chunk -> {
+            RandomGenerator random = randomStreams.stream(0, RandomStreams.INITIALIZATION, chunk);
+            LineEvaluator evaluator = new LineEvaluator(problem, penaltyMode);
+            int half = problem.getHalf();
+            int end = Math.min(populationSize, (chunk + 1) * RandomStreams.CHUNK_SIZE);
+            for (int i = chunk * RandomStreams.CHUNK_SIZE; i < end && !cancelled; i++) {
+                int offset = i * pieceCount;
+                for (int piece = 0; piece < pieceCount; piece++) {
+                    int base = problem.isBlackHalf(piece) ? half : 0;
+                    int square;
+                    do {
+                        square = base + random.nextInt(half);
+                    } while (pieceAt(genomes, offset, square, piece) >= 0);
+                    genomes[offset + piece] = (short) square;
+                }
+                score(evaluator, genomes, conflicts, fitness, i);
+            }
+        });
+    }
+
+    /**
+     * crossOver() method creates the children of every pair (the children of pair i are at 2i and 2i + 1),
+     * the pairs are processed in parallel chunks
+     * with the crossover probability (0.8 by default), a child takes the white pieces of one parent and the black pieces of the other,
+     * then it may be mutated and it is scored; otherwise the parents are copied
+     * @param numPairs the number of pairs, their parents are selectedBuffer[2i] and selectedBuffer[2i + 1]
+     */
+    private void crossOver(int numPairs) {
+        int generation = generationCount;
+        int whites = pieceCount / 2;
+        forEachChunk(numPairs, chunk -> {
+            RandomGenerator random = randomStreams.stream(generation, RandomStreams.CROSSOVER, chunk);
+            LineEvaluator evaluator = new LineEvaluator(problem, penaltyMode);
+            short[] occupants = new short[problem.getHalf()];
+            int end = Math.min(numPairs, (chunk + 1) * RandomStreams.CHUNK_SIZE);
+            for (int i = chunk * RandomStreams.CHUNK_SIZE; i < end; i++) {
+                int first = selectedBuffer[2 * i];
+                int second = selectedBuffer[2 * i + 1];
+                int child = 2 * i;
+                if (random.nextDouble() <= crossoverProbability) {
+                    // The white half of the first parent with the black half of the second one, and the other way round
+                    System.arraycopy(genomes, first * pieceCount, nextGenomes, child * pieceCount, whites);
+                    System.arraycopy(genomes, second * pieceCount + whites, nextGenomes, child * pieceCount + whites, whites);
+                    System.arraycopy(genomes, second * pieceCount, nextGenomes, (child + 1) * pieceCount, whites);
+                    System.arraycopy(genomes, first * pieceCount + whites, nextGenomes, (child + 1) * pieceCount + whites,
+                            whites);
+                    for (int c = child; c <= child + 1; c++) {
+                        mutate(nextGenomes, c * pieceCount, occupants, random);
+                        score(evaluator, nextGenomes, nextConflicts, nextFitness, c);
+                    }
+                } else {
+                    copy(first, child);
+                    copy(second, child + 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * mutate() method moves a random piece of a random half to another square of its half,
+     * the piece standing there (if any) takes its square, with the mutation probability of the config
+     * Steps:
+     * 1- Pick the half, the piece and the target square (never the square of the piece)
+     * 2- Index the squares of the pieces of the half, find the piece on the target square, clear the index
+     * 3- Move the piece, and the one found on the target square to the square left
+     * @param genomes the genome buffer
+     * @param offset where the genome starts
+     * @param occupants the square index of the chunk, 1 + the piece on every square of a half (0 if empty), all 0
+     * @param random the random generator of the chunk
+     */
+    private void mutate(short[] genomes, int offset, short[] occupants, RandomGenerator random) {
+        if (random.nextDouble() >= mutationProbability) {
+            return;
+        }
+
+        // 1- Pick the half, the piece and the target square (never the square of the piece)
+        int half = problem.getHalf();
+        int halfPieces = pieceCount / 2;
+        boolean black = random.nextDouble() >= 0.5;
+        int base = black ? half : 0;
+        int first = black ? halfPieces : 0;
+        int piece = first + random.nextInt(halfPieces);
+        int from = genomes[offset + piece] - base;
+        int to = random.nextInt(half - 1);
+        if (to >= from) {
+            to++;
+        }
+
+        // 2- Index the squares of the pieces of the half, find the piece on the target square, clear the index
+        for (int i = first; i < first + halfPieces; i++) {
+            occupants[genomes[offset + i] - base] = (short) (i + 1);
+        }
+        int other = occupants[to] - 1;
+        for (int i = first; i < first + halfPieces; i++) {
+            occupants[genomes[offset + i] - base] = 0;
+        }
+
+        // 3- Move the piece, and the one found on the target square to the square left
+        genomes[offset + piece] = (short) (base + to);
+        if (other >= 0) {
+            genomes[offset + other] = (short) (base + from);
+        }
+    }
+
+    /**
+     * pieceAt() method finds the piece standing on a square, among the first pieces of a genome
+     * @param genomes the genome buffer
+     * @param offset where the genome starts
+     * @param square the square
+     * @param pieces the number of pieces to look at
+     * @return the piece index, -1 if the square is empty
+     */
+    private static int pieceAt(short[] genomes, int offset, int square, int pieces) {
+        for (int piece = 0; piece < pieces; piece++) {
+            if (genomes[offset + piece] == square) {
+                return piece;
+            }
+        }
+        return -1;
+    }
+
+    private void score(LineEvaluator evaluator, short[] genomes, int[] conflicts, double[] fitness, int index) {
+        conflicts[index] = evaluator.conflicts(genomes, index * pieceCount);
+        fitness[index] = FitnessFunction.fitness(conflicts[index]);
+    }
+
+    /**
+     * copy() method copies an individual of the population into the offspring (it keeps its conflicts)
+     */
+    private void copy(int from, int to) {
+        System.arraycopy(genomes, from * pieceCount, nextGenomes, to * pieceCount, pieceCount);
+        nextConflicts[to] = conflicts[from];
+        nextFitness[to] = fitness[from];
+    }
+
+    /**
+     * carryElite() method copies the eliteCount best individuals of the population after the children
+     * (the lowest conflicts, the lowest indexes on a tie)
+     * @param children the number of children
+     */
+    private void carryElite(int children) {
+        if (eliteCount == 0) {
+            return;
+        }
+        if (rankBuffer.length < size) {
+            rankBuffer = new long[size];
+        }
+        for (int i = 0; i < size; i++) {
+            rankBuffer[i] = (long) conflicts[i] << 32 | i;
+        }
+        Arrays.sort(rankBuffer, 0, size);
+        for (int i = 0; i < eliteCount; i++) {
+            copy((int) rankBuffer[i], children + i);
+        }
+    }
+
+    /**
+     * swapBuffers() method makes the offspring the population, the old population is overwritten by the next generation
+     */
+    private void swapBuffers() {
+        short[] parentGenomes = genomes;
+        genomes = nextGenomes;
+        nextGenomes = parentGenomes;
+        int[] parentConflicts = conflicts;
+        conflicts = nextConflicts;
+        nextConflicts = parentConflicts;
+        double[] parentFitness = fitness;
+        fitness = nextFitness;
+        nextFitness = parentFitness;
+    }
+
+    /**
+     * bestIndex() method finds the individual with the lowest number of conflicts (the first one on a tie)
+     * @return its index
+     */
+    private int bestIndex() {
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (conflicts[i] < conflicts[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private Placement toPlacement(int index) {
+        return new Placement(problem, genomes, index * pieceCount, conflicts[index], penaltyMode);
+    }
+
+    /**
+     * snapshot() method takes a snapshot of a board with the statistics of the population
+     * (the diversity is not measured on placements, it is NaN)
+     * @param best the board to display
+     * @param finished true if the run is over
+     * @return the snapshot
+     */
+    private GenerationSnapshot snapshot(Placement best, boolean finished) {
+        long sum = 0;
+        int worst = 0;
+        for (int i = 0; i < size; i++) {
+            sum += conflicts[i];
+            worst = Math.max(worst, conflicts[i]);
+        }
+        if (finished) {
+            return new GenerationSnapshot(generationCount, best.getConflicts(), ultimateSolution.getConflicts(),
+                    best.getBoard(), true);
+        }
+        return new GenerationSnapshot(generationCount, best.getConflicts(), ultimateSolution.getConflicts(), best.getBoard(),
+                false, 0, (double) sum / size, worst, Double.NaN);
+    }
+
+    public int getGenerationCount() {
+        return generationCount;
+    }
+}
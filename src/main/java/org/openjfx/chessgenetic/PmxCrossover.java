@@ -0,0 +1,45 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the partially mapped crossover (PMX), on each half of the board.
+ * A random segment is copied from one parent, the other squares come from the other parent,
+ * a label already taken by the segment is replaced by following the mapping of the segment.
+ * @see <a href="https://en.wikipedia.org/wiki/Crossover_(genetic_algorithm)#Partially_mapped_crossover_(PMX)">PMX</a>
+ */
+public final class PmxCrossover extends PermutationCrossover {
+
+    @Override
+    void crossHalf(int[] parent1, int[] parent2, int[] child1, int[] child2, RandomGenerator random) {
+        int from = random.nextInt(HALF);
+        int to = from + 1 + random.nextInt(HALF - from);
+        mapSegment(parent1, parent2, position1, from, to, child1);
+        mapSegment(parent2, parent1, position2, from, to, child2);
+    }
+
+    /**
+     * mapSegment() method builds one child: the segment of the donor, the rest of the other parent
+     * @param donor the parent giving the segment
+     * @param other the parent giving the rest
+     * @param donorPositions where each label is in the donor
+     * @param from the first square of the segment
+     * @param to the end of the segment (excluded)
+     * @param child where the child is written
+     */
+    private static void mapSegment(int[] donor, int[] other, int[] donorPositions, int from, int to, int[] child) {
+        for (int i = 0; i < HALF; i++) {
+            if (i >= from && i < to) {
+                child[i] = donor[i];
+                continue;
+            }
+            // A label of the segment is already used, take the one it is mapped to (until it is free)
+            int label = other[i];
+            int position;
+            while ((position = donorPositions[label]) >= from && position < to) {
+                label = other[position];
+            }
+            child[i] = label;
+        }
+    }
+}
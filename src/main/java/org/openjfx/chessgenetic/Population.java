@@ -0,0 +1,313 @@
+package org.openjfx.chessgenetic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class stores a whole population as a structure of arrays:
+ * every genome in one contiguous byte array (64 bytes per individual, see {@link Pieces}),
+ * the conflicts, the fitness and the canonical Zobrist hashes (see {@link Symmetry}) in parallel int[], double[] and long[] arrays.
+ * The arrays are allocated once with the capacity and reused, the engine keeps two populations
+ * and flips between them every generation (the offspring of one generation are written over the parents of the previous one),
+ * so a generation allocates no board at all.
+ * A {@link ChessMatrix} is only used as a cursor to mutate an individual, or built for the boards somebody looks at.
+ * Different threads may write different individuals at the same time.
+ */
+public final class Population {
+    public static final int GENOME_LENGTH = Attacks.SQUARES;
+    public static final int MAX_DISTANCE = 2 * CompactGenome.LENGTH; // Two boards of 10 pieces differ on 20 squares at most
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private final int capacity;                 // The maximum number of individuals
+    private final byte[] genomes;               // The genome of individual i is at [i * 64, i * 64 + 64)
+    private final int[] conflicts;              // The conflicts of every individual
+    private final double[] fitness;             // The fitness of every individual
+    private final long[] hashes;                // The canonical hash of every genome
+    private int size;                           // The number of individuals in use
+    private int[] histogram = new int[0];       // Reused by best() and worst()
+
+    public Population(int capacity) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / GENOME_LENGTH) {
+            throw new IllegalArgumentException("Invalid population capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        genomes = new byte[capacity * GENOME_LENGTH];
+        conflicts = new int[capacity];
+        fitness = new double[capacity];
+        hashes = new long[capacity];
+    }
+
+    /**
+     * store() method copies a board into the given slot
+     * @param index the slot
+     * @param board the board (its genome, conflicts, fitness and canonical hash)
+     */
+    public void store(int index, ChessMatrix board) {
+        System.arraycopy(board.getGenome(), 0, genomes, offset(index), GENOME_LENGTH);
+        conflicts[index] = board.getConflicts();
+        fitness[index] = board.getFitness();
+        hashes[index] = board.getCanonicalHash();
+    }
+
+    /**
+     * copy() method copies an individual of another population (or of this one) into the given slot
+     * @param index the slot
+     * @param source the population to copy from
+     * @param sourceIndex the individual to copy
+     */
+    public void copy(int index, Population source, int sourceIndex) {
+        System.arraycopy(source.genomes, source.offset(sourceIndex), genomes, offset(index), GENOME_LENGTH);
+        conflicts[index] = source.conflicts[sourceIndex];
+        fitness[index] = source.fitness[sourceIndex];
+        hashes[index] = source.hashes[sourceIndex];
+    }
+
+    /**
+     * load() method loads an individual into a board used as a cursor (it is rescored)
+     * @param index the individual
+     * @param cursor the board to overwrite
+     */
+    public void load(int index, ChessMatrix cursor) {
+        cursor.load(genomes, offset(index));
+    }
+
+    /**
+     * toMatrix() method builds a new board from an individual
+     * @param index the individual
+     * @param fitnessFunction the fitness function of the board
+     * @return the board, independent of this population
+     */
+    public ChessMatrix toMatrix(int index, FitnessFunction fitnessFunction) {
+        return new ChessMatrix(Arrays.copyOfRange(genomes, offset(index), offset(index) + GENOME_LENGTH), fitnessFunction);
+    }
+
+    /**
+     * bestIndex() method finds the individual with the lowest number of conflicts (the first one on a tie)
+     * @return its index
+     */
+    public int bestIndex() {
+        if (size == 0) {
+            throw new IllegalStateException("Population is empty");
+        }
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (conflicts[i] < conflicts[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * meanConflicts() method returns the mean number of conflicts of the individuals
+     * @return the mean, 0 for an empty population
+     */
+    public double meanConflicts() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += conflicts[i];
+        }
+        return size == 0 ? 0 : (double) sum / size;
+    }
+
+    /**
+     * worstConflicts() method returns the highest number of conflicts of the individuals
+     * @return the conflicts, 0 for an empty population
+     */
+    public int worstConflicts() {
+        int worst = 0;
+        for (int i = 0; i < size; i++) {
+            worst = Math.max(worst, conflicts[i]);
+        }
+        return worst;
+    }
+
+    /**
+     * distinctClasses() method counts the symmetry classes of the population (the distinct canonical hashes)
+     * @param scratch a set to count them with, cleared first
+     * @return the number of classes, getSize() if every board is unique
+     */
+    int distinctClasses(LongHashSet scratch) {
+        scratch.clear(size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (scratch.add(hashes[i])) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * sampledDistance() method estimates the mean Hamming distance between two individuals (the squares they differ on)
+     * from random pairs, comparing the genomes 8 squares at a time
+     * @param samples the number of pairs
+     * @param random the random generator of the pairs
+     * @return the mean distance, in [0, MAX_DISTANCE], 0 for less than 2 individuals
+     */
+    public double sampledDistance(int samples, RandomGenerator random) {
+        if (size < 2 || samples <= 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int s = 0; s < samples; s++) {
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            total += distance(first, second);
+        }
+        return (double) total / samples;
+    }
+
+    /**
+     * distance() method counts the squares on which two individuals differ
+     * @param first an individual
+     * @param second another one
+     * @return the Hamming distance of their genomes
+     */
+    public int distance(int first, int second) {
+        int firstOffset = offset(first);
+        int secondOffset = offset(second);
+        int distance = 0;
+        for (int i = 0; i < GENOME_LENGTH; i += Long.BYTES) {
+            long diff = (long) LONGS.get(genomes, firstOffset + i) ^ (long) LONGS.get(genomes, secondOffset + i);
+            // The high bit of a byte is set if the byte is not 0 (no carry crosses a byte: 0x7F + 0x7F < 0x100)
+            distance += Long.bitCount((((diff & LOW_BITS) + LOW_BITS) | diff) & ~LOW_BITS);
+        }
+        return distance;
+    }
+
+    /**
+     * best() method finds the count individuals with the lowest conflicts (ties: the lowest indexes), in O(size)
+     * @param count the number of individuals wanted, at most getSize()
+     * @param out where their indexes are written, in index order
+     */
+    public void best(int count, int[] out) {
+        extremes(count, out, true);
+    }
+
+    /**
+     * worst() method finds the count individuals with the highest conflicts (ties: the lowest indexes), in O(size)
+     * @param count the number of individuals wanted, at most getSize()
+     * @param out where their indexes are written, in index order
+     */
+    public void worst(int count, int[] out) {
+        extremes(count, out, false);
+    }
+
+    /**
+     * extremes() method is a counting selection on the conflicts (they are small integers)
+     * Steps:
+     * 1- Build the histogram of the conflicts, the worst ones first if lowest is false
+     * 2- Find the threshold: the conflicts of the last individual taken
+     * 3- Take every individual below the threshold, and the first ones on it
+     */
+    private void extremes(int count, int[] out, boolean lowest) {
+        if (count < 0 || count > size) {
+            throw new IllegalArgumentException("Can not take " + count + " out of " + size);
+        }
+        if (count == 0) {
+            return;
+        }
+
+        // 1- Build the histogram of the conflicts, the worst ones first if lowest is false
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, conflicts[i]);
+        }
+        if (histogram.length <= max) {
+            histogram = new int[max + 1];
+        }
+        Arrays.fill(histogram, 0, max + 1, 0);
+        for (int i = 0; i < size; i++) {
+            histogram[lowest ? conflicts[i] : max - conflicts[i]]++;
+        }
+
+        // 2- Find the threshold: the conflicts of the last individual taken
+        int threshold = 0;
+        int below = 0;
+        while (below + histogram[threshold] < count) {
+            below += histogram[threshold];
+            threshold++;
+        }
+
+        // 3- Take every individual below the threshold, and the first ones on it
+        int onThreshold = count - below;
+        int taken = 0;
+        for (int i = 0; i < size && taken < count; i++) {
+            int rank = lowest ? conflicts[i] : max - conflicts[i];
+            if (rank < threshold || (rank == threshold && onThreshold-- > 0)) {
+                out[taken++] = i;
+            }
+        }
+    }
+
+    /**
+     * offset() method returns where the genome of an individual starts in getGenomes()
+     * @param index the individual
+     * @return index * 64
+     */
+    public int offset(int index) {
+        return index * GENOME_LENGTH;
+    }
+
+    /**
+     * getters and setters
+     */
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("Invalid population size: " + size + " (capacity " + capacity + ")");
+        }
+        this.size = size;
+    }
+
+    /**
+     * getGenomes() method returns the genome array itself (not a copy)
+     * @return every genome, see offset()
+     */
+    public byte[] getGenomes() {
+        return genomes;
+    }
+
+    public int getConflicts(int index) {
+        return conflicts[index];
+    }
+
+    public double getFitness(int index) {
+        return fitness[index];
+    }
+
+    /**
+     * getCanonicalHash() method returns the canonical hash of an individual, equal for symmetric boards
+     * @param index the individual
+     * @return the hash
+     */
+    public long getCanonicalHash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * getFitnessArray() method returns the fitness array itself (not a copy), for the selection strategies
+     * only the first getSize() values are meaningful, it must not be modified
+     * @return the fitness of every individual
+     */
+    public double[] getFitnessArray() {
+        return fitness;
+    }
+}
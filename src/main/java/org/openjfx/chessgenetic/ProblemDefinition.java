@@ -0,0 +1,124 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class describes one instance of the puzzle: the size of the (square) board and the pieces of each colour.
+ * The white pieces stand in the top half of the board, the black ones (the same set) in the bottom half,
+ * and the goal is a placement where no piece attacks another one (see {@link FitnessFunction} for the rules).
+ * The original puzzle is {@link #STANDARD}: an 8x8 board with a queen, a queen, a rook, a knight and a bishop per colour,
+ * it runs on the bitboards of {@link ChessMatrix}; any other instance runs on a {@link PlacementEngine}.
+ */
+public final class ProblemDefinition {
+    public static final int MIN_BOARD_SIZE = 4;
+    public static final int MAX_BOARD_SIZE = 180;    // Every square index fits in a short
+
+    public static final ProblemDefinition STANDARD = new ProblemDefinition(Attacks.BOARD_SIZE, "QQRKB");
+
+    private final int boardSize;                // The number of rows (and columns)
+    private final byte[] pieces;                // The piece codes, the white ones then the black ones
+    private final String whitePieces;           // The white pieces as board view chars
+
+    /**
+     * Creates a problem
+     * @param boardSize the number of rows (and columns), even, in [MIN_BOARD_SIZE, MAX_BOARD_SIZE]
+     * @param whitePieces the white pieces as board view chars (Q queen, R rook, B bishop, K knight), black gets the same set
+     * @throws IllegalArgumentException if the board size is invalid, a piece is unknown or a half can not hold the pieces
+     */
+    public ProblemDefinition(int boardSize, String whitePieces) {
+        if (boardSize < MIN_BOARD_SIZE || boardSize > MAX_BOARD_SIZE || boardSize % 2 != 0) {
+            throw new IllegalArgumentException("Board size must be even and in [" + MIN_BOARD_SIZE + ", " + MAX_BOARD_SIZE + "]");
+        }
+        if (whitePieces.isEmpty() || whitePieces.length() > boardSize * boardSize / 2) {
+            throw new IllegalArgumentException("Each half of a " + boardSize + "x" + boardSize + " board holds 1 to "
+                    + boardSize * boardSize / 2 + " pieces, got " + whitePieces.length());
+        }
+        this.boardSize = boardSize;
+        this.whitePieces = whitePieces;
+        int count = whitePieces.length();
+        pieces = new byte[2 * count];
+        for (int i = 0; i < count; i++) {
+            char piece = whitePieces.charAt(i);
+            byte code = Pieces.fromChar(piece);
+            if (code == Pieces.EMPTY || Pieces.isBlack(code)) {
+                throw new IllegalArgumentException("Unknown white piece '" + piece + "', expected Q, R, B or K");
+            }
+            pieces[i] = code;
+            pieces[count + i] = (byte) (code | Pieces.BLACK);
+        }
+    }
+
+    /**
+     * parse() method reads a problem from the command line: "N" (the standard pieces on an NxN board)
+     * or "N:PIECES" (e.g. "32:QQQQRRRRKKKKBBBB", the white pieces, black gets the same set)
+     * @param spec the problem
+     * @return the problem
+     * @throws IllegalArgumentException if it is invalid
+     */
+    public static ProblemDefinition parse(String spec) {
+        int colon = spec.indexOf(':');
+        int size = Integer.parseInt(colon < 0 ? spec : spec.substring(0, colon));
+        return new ProblemDefinition(size, colon < 0 ? STANDARD.whitePieces : spec.substring(colon + 1));
+    }
+
+    /**
+     * isStandard() method tells if this is the original 8x8 puzzle (the one the bitboard engine solves)
+     * @return true for the standard problem
+     */
+    public boolean isStandard() {
+        return boardSize == STANDARD.boardSize && whitePieces.equals(STANDARD.whitePieces);
+    }
+
+    /**
+     * isBlackHalf() method tells in which half a piece stands
+     * @param piece the piece index, in [0, getPieceCount())
+     * @return true for the black pieces (bottom half)
+     */
+    public boolean isBlackHalf(int piece) {
+        return piece >= pieces.length / 2;
+    }
+
+    @Override
+    public String toString() {
+        return boardSize + ":" + whitePieces;
+    }
+
+    /**
+     * getters
+     */
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getSquares() {
+        return boardSize * boardSize;
+    }
+
+    /**
+     * getHalf() method returns the number of squares of each half, the black half starts there
+     * @return the squares per half
+     */
+    public int getHalf() {
+        return boardSize * boardSize / 2;
+    }
+
+    /**
+     * getPieceCount() method returns the number of pieces on the board (both colours)
+     * @return the piece count
+     */
+    public int getPieceCount() {
+        return pieces.length;
+    }
+
+    /**
+     * getPiece() method returns the piece code of a piece
+     * @param piece the piece index, the white pieces first
+     * @return the code (see Pieces)
+     */
+    public byte getPiece(int piece) {
+        return pieces[piece];
+    }
+
+    public String getWhitePieces() {
+        return whitePieces;
+    }
+}
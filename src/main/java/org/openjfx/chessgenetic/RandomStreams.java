@@ -0,0 +1,67 @@
+package org.openjfx.chessgenetic;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class hands out the random generators of a seeded run.
+ * A generator is derived from (seed, generation, purpose, chunk) only, never from the thread that asks for it,
+ * so a run gives the same result whatever the number of threads, and no generator is ever shared between threads.
+ * The work of a generation is cut in chunks of {@link #CHUNK_SIZE} individuals, each chunk has its own generator.
+ */
+public final class RandomStreams {
+    public static final int CHUNK_SIZE = 256;
+
+    /** What a generator is used for, so two steps of the same generation never draw the same numbers */
+    public static final int INITIALIZATION = 1;
+    public static final int SELECTION = 2;
+    public static final int CROSSOVER = 3;
+    public static final int DEDUPLICATION = 4;
+    public static final int ISLAND = 5;
+    public static final int MIGRATION = 6;
+    public static final int LOCAL_SEARCH = 7;
+    public static final int DIVERSITY = 8;
+    public static final int STAGNATION = 9;
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * stream() method creates the generator of one chunk of one step of one generation
+     * @param generation the generation
+     * @param purpose INITIALIZATION, SELECTION, CROSSOVER...
+     * @param chunk the chunk index (0 for the sequential steps)
+     * @return a new generator, always the same one for the same arguments
+     */
+    public SplittableRandom stream(int generation, int purpose, int chunk) {
+        long key = mix(seed);
+        key = mix(key + generation);
+        key = mix(key + purpose);
+        key = mix(key + chunk);
+        return new SplittableRandom(key);
+    }
+
+    /**
+     * chunks() method counts the chunks needed for a number of items
+     * @param items the number of items
+     * @return the number of chunks
+     */
+    public static int chunks(int items) {
+        return (items + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * mix() method is the SplitMix64 finalizer, it spreads every input bit over the whole output
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,30 @@
+package org.openjfx.chessgenetic;
+
+import java.util.Arrays;
+
+/**
+ * This class sorts the individuals by fitness without boxing, for the rank based selections.
+ * Each individual is packed in a long: the float bits of its fitness (positive floats sort like ints) above its index.
+ */
+final class Ranking {
+    private long[] keys = new long[0];          // Reused between generations
+
+    /**
+     * sort() method orders the individuals from the worst to the best
+     * @param fitness the fitness of every individual (positive)
+     * @param size the number of individuals
+     * @param order where the indexes are written, worst first
+     */
+    void sort(double[] fitness, int size, int[] order) {
+        if (keys.length < size) {
+            keys = new long[size];
+        }
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) Float.floatToIntBits((float) fitness[i]) << 32) | i;
+        }
+        Arrays.sort(keys, 0, size);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+    }
+}
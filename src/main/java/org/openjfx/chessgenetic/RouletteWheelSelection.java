@@ -0,0 +1,100 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the fitness proportionate (roulette wheel) selection, on primitive arrays.
+ * Two modes:
+ * - WITHOUT_REPLACEMENT: every pick is proportional to the fitness of the individuals not picked yet,
+ *   a picked individual leaves the wheel (the original selectParents() rules), O(n + k log n) with a {@link FenwickTree}
+ * - STOCHASTIC_UNIVERSAL: k equally spaced pointers on one spin of the wheel, O(n + k), the picks are shuffled
+ *   so that consecutive picks (the pairs) are not neighbours on the wheel
+ * The selected indexes are written to an int array, consecutive picks form the parent pairs.
+ * An instance keeps its buffers between generations, it must not be shared between threads.
+ */
+public final class RouletteWheelSelection implements SelectionStrategy {
+
+    public enum Mode {
+        WITHOUT_REPLACEMENT,
+        STOCHASTIC_UNIVERSAL
+    }
+
+    private final Mode mode;
+    private FenwickTree wheel;                  // Reused between generations, grown if needed
+
+    public RouletteWheelSelection(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * select() method picks count individuals (at most size in WITHOUT_REPLACEMENT mode)
+     */
+    @Override
+    public void select(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        if (mode == Mode.WITHOUT_REPLACEMENT) {
+            selectWithoutReplacement(fitness, size, selected, count, random);
+        } else {
+            selectUniversal(fitness, size, selected, count, random);
+        }
+    }
+
+    /**
+     * selectWithoutReplacement() method spins the wheel count times, taking every winner off the wheel
+     */
+    private void selectWithoutReplacement(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        if (count > size) {
+            throw new IllegalArgumentException("Can not pick " + count + " out of " + size + " without replacement");
+        }
+        if (wheel == null || wheel.capacity() < size) {
+            wheel = new FenwickTree(size);
+        }
+        wheel.reset(fitness, size);
+
+        for (int i = 0; i < count; i++) {
+            int index = wheel.find(random.nextDouble() * wheel.total());
+            selected[i] = index;
+            wheel.remove(index);
+        }
+    }
+
+    /**
+     * selectUniversal() method spins the wheel once with count equally spaced pointers
+     * Steps:
+     * 1- Compute the total fitness and the distance between two pointers
+     * 2- Walk the wheel and the pointers together
+     * 3- Shuffle the picks
+     */
+    private static void selectUniversal(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        // 1- Compute the total fitness and the distance between two pointers
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += fitness[i];
+        }
+        double distance = total / count;
+        double pointer = random.nextDouble() * distance;
+
+        // 2- Walk the wheel and the pointers together
+        int index = 0;
+        double cumulative = fitness[0];
+        for (int i = 0; i < count; i++) {
+            while (cumulative <= pointer && index < size - 1) {
+                index++;
+                cumulative += fitness[index];
+            }
+            selected[i] = index;
+            pointer += distance;
+        }
+
+        // 3- Shuffle the picks
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = selected[i];
+            selected[i] = selected[j];
+            selected[j] = temp;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This interface is a parent selection scheme.
+ * It works on primitive arrays only: the fitness of every individual in, the indexes of the picked ones out,
+ * consecutive picks form the parent pairs.
+ * Implementations may keep buffers between calls, so an instance must not be shared between threads.
+ * @see SelectionType
+ */
+public interface SelectionStrategy {
+
+    /**
+     * select() method picks count individuals
+     * @param fitness the fitness of every individual (positive, higher is better)
+     * @param size the number of individuals
+     * @param selected where the picked indexes are written
+     * @param count the number of picks
+     * @param random the random generator
+     */
+    void select(double[] fitness, int size, int[] selected, int count, RandomGenerator random);
+}
@@ -0,0 +1,38 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * The selection strategies that can be chosen from the UI or the command line.
+ */
+public enum SelectionType {
+    ROULETTE("Roulette wheel"),
+    STOCHASTIC_UNIVERSAL("Stochastic universal sampling"),
+    TOURNAMENT("Tournament"),
+    LINEAR_RANK("Linear rank"),
+    TRUNCATION("Truncation");
+
+    private final String label;
+
+    SelectionType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * create() method builds a new strategy of this type with the parameters of the config
+     * @param config the run parameters (tournament size, rank pressure, truncation fraction)
+     * @return the strategy
+     */
+    public SelectionStrategy create(EvolutionConfig config) {
+        return switch (this) {
+            case ROULETTE -> new RouletteWheelSelection(RouletteWheelSelection.Mode.WITHOUT_REPLACEMENT);
+            case STOCHASTIC_UNIVERSAL -> new RouletteWheelSelection(RouletteWheelSelection.Mode.STOCHASTIC_UNIVERSAL);
+            case TOURNAMENT -> new TournamentSelection(config.getTournamentSize());
+            case LINEAR_RANK -> new LinearRankSelection(config.getRankPressure());
+            case TRUNCATION -> new TruncationSelection(config.getTruncationFraction());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
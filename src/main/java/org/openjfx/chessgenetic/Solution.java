@@ -0,0 +1,26 @@
+package org.openjfx.chessgenetic;
+
+import java.util.List;
+
+/**
+ * This interface is a scored board returned by a run: a {@link ChessMatrix} for the standard 8x8 problem,
+ * a {@link Placement} for any other {@link ProblemDefinition}.
+ */
+public interface Solution {
+
+    int getConflicts();
+
+    double getFitness();
+
+    /**
+     * getBoard() method returns the char view of the board ('e' for empty cells)
+     * @return the board, one row per line
+     */
+    char[][] getBoard();
+
+    /**
+     * explainConflicts() method lists every conflict of the board in a readable form
+     * @return one line per conflict, e.g. "Knight (0,1) -> (2,2)"
+     */
+    List<String> explainConflicts();
+}
@@ -0,0 +1,175 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class keeps the history of a run for the charts in a fixed amount of memory, whatever the number of generations:
+ * the generations are grouped in buckets of span generations, each bucket keeps the minimum and the maximum
+ * of every series (best, mean and worst conflicts, diversity, distance) in preallocated primitive arrays.
+ * When every bucket is used, neighbour buckets are merged two by two and the span doubles (min/max decimation),
+ * so the whole run is always covered and its peaks are never averaged away.
+ * The engine thread adds the generations, the JavaFX thread copies the buckets out to draw them.
+ */
+public final class StatsHistory {
+
+    /**
+     * The series of the history.
+     */
+    public enum Series {
+        BEST("Best"),
+        MEAN("Mean"),
+        WORST("Worst"),
+        DIVERSITY("Diversity"),
+        DISTANCE("Distance");
+
+        private final String label;
+
+        Series(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final int SERIES = Series.values().length;
+
+    private final int capacity;                 // The number of buckets
+    private final int[] firstGeneration;        // The first generation of every bucket
+    private final double[] min;                 // The minimum of series s in bucket b, at b * SERIES + s
+    private final double[] max;                 // The maximum of series s in bucket b, at b * SERIES + s
+    private int count;                          // The number of buckets in use, the last one may be partial
+    private int span = 1;                       // The generations per bucket
+    private int inLast;                         // The generations in the last bucket
+    private long version;                       // Incremented on every change, to skip redrawing an unchanged history
+
+    /**
+     * Creates an empty history
+     * @param capacity the number of buckets, even, at least 2 (the points drawn per series are twice this)
+     */
+    public StatsHistory(int capacity) {
+        if (capacity < 2 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("Capacity must be even and at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        firstGeneration = new int[capacity];
+        min = new double[capacity * SERIES];
+        max = new double[capacity * SERIES];
+    }
+
+    /**
+     * add() method adds a generation (in generation order; with islands, the generations of every island
+     * share the buckets), the final snapshots are ignored
+     * @param snapshot the generation
+     */
+    public void add(GenerationSnapshot snapshot) {
+        if (snapshot.isFinished()) {
+            return;
+        }
+        add(snapshot.getGeneration(), snapshot.getBestConflicts(), snapshot.getMeanConflicts(),
+                snapshot.getWorstConflicts(), snapshot.getDiversity(), snapshot.getDistance() / Population.MAX_DISTANCE);
+    }
+
+    /**
+     * add() method adds a generation (the diversity and the distance are in [0, 1], NaN if unknown)
+     * Steps:
+     * 1- Open a new bucket if the last one is full (merge the buckets two by two first if they are all used)
+     * 2- Widen the minimum and maximum of every series of the last bucket
+     */
+    public synchronized void add(int generation, double best, double mean, double worst, double diversity, double distance) {
+        // 1- Open a new bucket if the last one is full (merge the buckets two by two first if they are all used)
+        if (count == 0 || inLast == span) {
+            if (count == capacity) {
+                merge();
+            }
+            firstGeneration[count] = generation;
+            for (int s = 0; s < SERIES; s++) {
+                min[count * SERIES + s] = Double.POSITIVE_INFINITY;
+                max[count * SERIES + s] = Double.NEGATIVE_INFINITY;
+            }
+            count++;
+            inLast = 0;
+        }
+
+        // 2- Widen the minimum and maximum of every series of the last bucket
+        int base = (count - 1) * SERIES;
+        widen(base + Series.BEST.ordinal(), best);
+        widen(base + Series.MEAN.ordinal(), mean);
+        widen(base + Series.WORST.ordinal(), worst);
+        widen(base + Series.DIVERSITY.ordinal(), diversity);
+        widen(base + Series.DISTANCE.ordinal(), distance);
+        inLast++;
+        version++;
+    }
+
+    private void widen(int index, double value) {
+        if (!Double.isNaN(value)) {
+            min[index] = Math.min(min[index], value);
+            max[index] = Math.max(max[index], value);
+        }
+    }
+
+    /**
+     * merge() method merges the full buckets two by two, in place, and doubles the span
+     */
+    private void merge() {
+        for (int b = 0; b < capacity / 2; b++) {
+            int left = 2 * b;
+            firstGeneration[b] = firstGeneration[left];
+            for (int s = 0; s < SERIES; s++) {
+                min[b * SERIES + s] = Math.min(min[left * SERIES + s], min[(left + 1) * SERIES + s]);
+                max[b * SERIES + s] = Math.max(max[left * SERIES + s], max[(left + 1) * SERIES + s]);
+            }
+        }
+        count = capacity / 2;
+        span *= 2;
+    }
+
+    /**
+     * copy() method copies one series out, as min/max pairs: two points per bucket, the minimum then the maximum
+     * (the buckets without a value of the series are skipped)
+     * @param series the series
+     * @param generations where the generation of every point is written, at least 2 * getCapacity() long
+     * @param values where the value of every point is written, at least 2 * getCapacity() long
+     * @return the number of points written
+     */
+    public synchronized int copy(Series series, int[] generations, double[] values) {
+        int points = 0;
+        for (int b = 0; b < count; b++) {
+            int index = b * SERIES + series.ordinal();
+            if (min[index] > max[index]) {
+                continue;
+            }
+            generations[points] = firstGeneration[b];
+            values[points++] = min[index];
+            generations[points] = firstGeneration[b];
+            values[points++] = max[index];
+        }
+        return points;
+    }
+
+    /**
+     * clear() method empties the history, for a new run
+     */
+    public synchronized void clear() {
+        count = 0;
+        span = 1;
+        inLast = 0;
+        version++;
+    }
+
+    /**
+     * getters
+     */
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getSpan() {
+        return span;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,113 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class holds the symmetries of the puzzle: the transformations that keep both the conflicts of a board
+ * and the placement rule (white pieces in the top half, black pieces in the bottom half).
+ * - IDENTITY
+ * - MIRROR: left and right are swapped (column c goes to 7 - c)
+ * - FLIP: top and bottom are swapped (row r goes to 7 - r) and so are the colours, the white pieces stay on top
+ * - ROTATE: the half turn (both of the above), with the colours swapped
+ * The conflicts only depend on the piece kinds and on lines, diagonals and knight moves, which these keep.
+ * The quarter turns and the diagonal reflections are not symmetries here: they move pieces across the halves.
+ * <p>
+ * Every board has one Zobrist hash per symmetry (the hash of the transformed board), the canonical hash is the
+ * smallest of them, so the 4 boards of a symmetry class share it (see {@link ChessMatrix#getCanonicalHash()}).
+ */
+public final class Symmetry {
+    public static final int IDENTITY = 0;
+    public static final int MIRROR = 1;
+    public static final int FLIP = 2;
+    public static final int ROTATE = 3;
+    public static final int COUNT = 4;
+
+    private static final int[][] SQUARES = new int[COUNT][Attacks.SQUARES];     // Where each square goes
+    private static final byte[][] CODES = new byte[COUNT][Pieces.CODE_COUNT];   // What each piece code becomes
+
+    static {
+        int last = Attacks.BOARD_SIZE - 1;
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            int row = square / Attacks.BOARD_SIZE, col = square % Attacks.BOARD_SIZE;
+            SQUARES[IDENTITY][square] = square;
+            SQUARES[MIRROR][square] = Attacks.square(row, last - col);
+            SQUARES[FLIP][square] = Attacks.square(last - row, col);
+            SQUARES[ROTATE][square] = Attacks.square(last - row, last - col);
+        }
+        for (int code = 0; code < Pieces.CODE_COUNT; code++) {
+            byte swapped = code == Pieces.EMPTY ? Pieces.EMPTY : (byte) (code ^ Pieces.BLACK);
+            CODES[IDENTITY][code] = (byte) code;
+            CODES[MIRROR][code] = (byte) code;
+            CODES[FLIP][code] = swapped;
+            CODES[ROTATE][code] = swapped;
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * square() method returns where a square goes under a symmetry
+     */
+    public static int square(int symmetry, int square) {
+        return SQUARES[symmetry][square];
+    }
+
+    /**
+     * code() method returns what a piece code becomes under a symmetry
+     */
+    public static byte code(int symmetry, byte code) {
+        return CODES[symmetry][code];
+    }
+
+    /**
+     * key() method returns the Zobrist key of a piece on a square, in the board transformed by a symmetry
+     * @param symmetry the symmetry
+     * @param square the square in the original board
+     * @param code the piece code in the original board
+     * @return the key
+     */
+    public static long key(int symmetry, int square, byte code) {
+        return Zobrist.key(SQUARES[symmetry][square], CODES[symmetry][code]);
+    }
+
+    /**
+     * canonicalSymmetry() method finds the symmetry that gives the canonical form of a board
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @return the symmetry whose transformed board has the smallest hash (the first one on a tie)
+     */
+    public static int canonicalSymmetry(byte[] genes, int offset) {
+        int best = IDENTITY;
+        long bestHash = 0;
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            long hash = 0;
+            for (int square = 0; square < Attacks.SQUARES; square++) {
+                hash ^= key(symmetry, square, genes[offset + square]);
+            }
+            if (symmetry == IDENTITY || hash < bestHash) {
+                best = symmetry;
+                bestHash = hash;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * canonicalize() method writes the canonical form of a board: the representative of its symmetry class
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @param target where the canonical board is written (not the same squares as the board)
+     * @param targetOffset the index of its first square
+     */
+    public static void canonicalize(byte[] genes, int offset, byte[] target, int targetOffset) {
+        transform(canonicalSymmetry(genes, offset), genes, offset, target, targetOffset);
+    }
+
+    /**
+     * transform() method writes a board transformed by a symmetry
+     */
+    public static void transform(int symmetry, byte[] genes, int offset, byte[] target, int targetOffset) {
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            target[targetOffset + SQUARES[symmetry][square]] = CODES[symmetry][genes[offset + square]];
+        }
+    }
+}
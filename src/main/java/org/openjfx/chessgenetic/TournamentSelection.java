@@ -0,0 +1,38 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the tournament selection: every pick is the best of k individuals drawn at random.
+ * It costs O(k) per pick whatever the population size and keeps its selection pressure
+ * when the fitness values are close to each other (it only compares them).
+ * @see <a href="https://en.wikipedia.org/wiki/Tournament_selection">Tournament selection</a>
+ */
+public final class TournamentSelection implements SelectionStrategy {
+    private final int tournamentSize;
+
+    public TournamentSelection(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("Tournament size must be at least 1");
+        }
+        this.tournamentSize = tournamentSize;
+    }
+
+    @Override
+    public void select(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        for (int i = 0; i < count; i++) {
+            int winner = random.nextInt(size);
+            for (int round = 1; round < tournamentSize; round++) {
+                int challenger = random.nextInt(size);
+                if (fitness[challenger] > fitness[winner]) {
+                    winner = challenger;
+                }
+            }
+            selected[i] = winner;
+        }
+    }
+
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+}
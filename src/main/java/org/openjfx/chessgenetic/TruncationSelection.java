@@ -0,0 +1,38 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is the truncation selection: only the best fraction of the population can be picked,
+ * all of them with the same probability.
+ */
+public final class TruncationSelection implements SelectionStrategy {
+    private final double fraction;              // In (0, 1], the part of the population kept
+    private final Ranking ranking = new Ranking();
+    private int[] order = new int[0];
+
+    public TruncationSelection(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("Truncation fraction must be in (0, 1]");
+        }
+        this.fraction = fraction;
+    }
+
+    @Override
+    public void select(double[] fitness, int size, int[] selected, int count, RandomGenerator random) {
+        if (order.length < size) {
+            order = new int[size];
+        }
+        ranking.sort(fitness, size, order);
+
+        // The best individuals are at the end of the order
+        int kept = Math.max(1, (int) Math.ceil(size * fraction));
+        for (int i = 0; i < count; i++) {
+            selected[i] = order[size - 1 - random.nextInt(kept)];
+        }
+    }
+
+    public double getFraction() {
+        return fraction;
+    }
+}
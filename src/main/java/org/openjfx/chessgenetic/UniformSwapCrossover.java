@@ -0,0 +1,40 @@
+package org.openjfx.chessgenetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is a uniform crossover made of swaps, on each half of the board.
+ * Each child starts as a copy of one parent, then every square takes the label of the other parent with probability 1/2:
+ * the label is swapped in from wherever it is in the child, so the child stays a permutation.
+ * A square that took its label keeps it, the later swaps never move it.
+ */
+public final class UniformSwapCrossover extends PermutationCrossover {
+
+    @Override
+    void crossHalf(int[] parent1, int[] parent2, int[] child1, int[] child2, RandomGenerator random) {
+        // position1 and position2 follow the labels of the children from now on
+        System.arraycopy(parent1, 0, child1, 0, HALF);
+        System.arraycopy(parent2, 0, child2, 0, HALF);
+        for (int square = 0; square < HALF; square++) {
+            if (random.nextBoolean()) {
+                swapIn(child1, position1, square, parent2[square]);
+                swapIn(child2, position2, square, parent1[square]);
+            }
+        }
+    }
+
+    /**
+     * swapIn() method moves a label to a square of a child, the label on that square goes where the label was
+     */
+    private static void swapIn(int[] child, int[] positions, int square, int label) {
+        int from = positions[label];
+        if (from == square) {
+            return;
+        }
+        int replaced = child[square];
+        child[square] = label;
+        child[from] = replaced;
+        positions[label] = square;
+        positions[replaced] = from;
+    }
+}
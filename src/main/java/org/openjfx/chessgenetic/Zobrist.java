@@ -0,0 +1,53 @@
+package org.openjfx.chessgenetic;
+
+/**
+ * This class holds the Zobrist keys of the boards: one random 64 bit key per (square, piece code),
+ * the hash of a board is the xor of the keys of its pieces (an empty square has the key 0).
+ * Swapping two squares only changes the keys of those two squares, so the hash is kept up to date in O(1)
+ * (see {@link ChessMatrix#swapAndRescore(int, int)}, which also keeps the hashes of the symmetric boards, see {@link Symmetry}).
+ * The keys are generated from a fixed seed, so a hash is the same in every run and every process.
+ * @see <a href="https://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist hashing</a>
+ */
+public final class Zobrist {
+    private static final long[] KEYS = new long[Attacks.SQUARES * Pieces.CODE_COUNT];
+
+    static {
+        long state = 0x5DEECE66DL;
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            for (int code = 1; code < Pieces.CODE_COUNT; code++) {
+                state += 0x9e3779b97f4a7c15L;
+                long z = state;
+                z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+                z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+                KEYS[square * Pieces.CODE_COUNT + code] = z ^ (z >>> 31);
+            }
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * key() method returns the key of a piece on a square
+     * @param square the square
+     * @param code the piece code (EMPTY gives 0)
+     * @return the key
+     */
+    public static long key(int square, byte code) {
+        return KEYS[square * Pieces.CODE_COUNT + code];
+    }
+
+    /**
+     * hash() method hashes a genome stored in a bigger array
+     * @param genes the genome array
+     * @param offset the index of the first square of the board
+     * @return the hash
+     */
+    public static long hash(byte[] genes, int offset) {
+        long hash = 0;
+        for (int square = 0; square < Attacks.SQUARES; square++) {
+            hash ^= KEYS[square * Pieces.CODE_COUNT + genes[offset + square]];
+        }
+        return hash;
+    }
+}
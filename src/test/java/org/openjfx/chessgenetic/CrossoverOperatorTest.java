@@ -0,0 +1,51 @@
+package org.openjfx.chessgenetic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks that every crossover operator keeps the 5 white pieces in the top half and the 5 black ones in the bottom half.
+ */
+class CrossoverOperatorTest {
+    private static final int HALF = Attacks.SQUARES / 2; // The squares of each colour
+    private static final int PAIRS = 2000;
+
+    @Test
+    void childrenKeepThePiecesOfEachHalf() {
+        for (CrossoverType type : CrossoverType.values()) {
+            check(type);
+        }
+    }
+
+    private static void check(CrossoverType type) {
+        SplittableRandom random = new SplittableRandom(3);
+        CrossoverOperator operator = type.create();
+        byte[] parents = new byte[2 * Attacks.SQUARES];
+        byte[] children = new byte[2 * Attacks.SQUARES];
+        for (int pair = 0; pair < PAIRS; pair++) {
+            System.arraycopy(new ChessMatrix(FitnessFunction.DEFAULT, random).getGenome(), 0, parents, 0, Attacks.SQUARES);
+            System.arraycopy(new ChessMatrix(FitnessFunction.DEFAULT, random).getGenome(), 0, parents, Attacks.SQUARES, Attacks.SQUARES);
+            operator.cross(parents, 0, Attacks.SQUARES, children, 0, Attacks.SQUARES, random);
+            for (int child = 0; child < 2; child++) {
+                int offset = child * Attacks.SQUARES;
+                assertArrayEquals(counts(parents, 0, 0), counts(children, offset, 0), type + ", white half, pair " + pair);
+                assertArrayEquals(counts(parents, 0, HALF), counts(children, offset, HALF),
+                        type + ", black half, pair " + pair);
+            }
+        }
+    }
+
+    /**
+     * counts() method counts every piece code of one half of a board
+     */
+    private static int[] counts(byte[] genes, int offset, int half) {
+        int[] counts = new int[Pieces.CODE_COUNT];
+        for (int square = half; square < half + HALF; square++) {
+            counts[genes[offset + square]]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,78 @@
+package org.openjfx.chessgenetic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a seeded run is reproducible: with any number of threads, and when it is resumed from a checkpoint.
+ */
+class EvolutionEngineTest {
+    private static final int POPULATION = 1000;  // Several chunks, so the threads share the work
+    private static final int GENERATIONS = 40;
+    private static final int STOP = 15;          // The generation at which the interrupted run stops
+
+    @Test
+    void seededRunDoesNotDependOnTheThreads() {
+        List<Integer> oneThread = new ArrayList<>();
+        List<Integer> fourThreads = new ArrayList<>();
+        ChessMatrix single = new EvolutionEngine(config(1, GENERATIONS)).run(bestConflicts(oneThread));
+        ChessMatrix parallel = new EvolutionEngine(config(4, GENERATIONS)).run(bestConflicts(fourThreads));
+
+        assertEquals(oneThread, fourThreads);
+        assertEquals(single.getConflicts(), parallel.getConflicts());
+        assertArrayEquals(single.getGenome(), parallel.getGenome());
+    }
+
+    @Test
+    void resumedRunMatchesAnUninterruptedOne(@TempDir Path directory) {
+        List<Integer> uninterrupted = new ArrayList<>();
+        ChessMatrix expected = new EvolutionEngine(config(1, GENERATIONS)).run(bestConflicts(uninterrupted));
+
+        // Stop at STOP with a last checkpoint, then resume up to GENERATIONS
+        Path checkpoint = directory.resolve("run.checkpoint");
+        EvolutionConfig first = config(1, STOP);
+        first.setCheckpointFile(checkpoint);
+        first.setCheckpointInterval(0);
+        new EvolutionEngine(first).run(null);
+
+        List<Integer> resumed = new ArrayList<>();
+        EvolutionConfig second = config(1, GENERATIONS);
+        second.setCheckpointFile(checkpoint);
+        second.setResume(true);
+        ChessMatrix actual = new EvolutionEngine(second).run(bestConflicts(resumed));
+
+        assertTrue(uninterrupted.size() > STOP, "the run was solved before the checkpoint");
+        assertEquals(uninterrupted.subList(STOP, uninterrupted.size()), resumed);
+        assertEquals(expected.getConflicts(), actual.getConflicts());
+        assertArrayEquals(expected.getGenome(), actual.getGenome());
+    }
+
+    private static EvolutionConfig config(int threads, int generations) {
+        EvolutionConfig config = new EvolutionConfig();
+        config.setPopulationSize(POPULATION);
+        config.setMaxGenerations(generations);
+        config.setSeed(7);
+        config.setThreads(threads);
+        config.setConsoleLogging(false);
+        return config;
+    }
+
+    /**
+     * bestConflicts() method records the best conflicts of every generation (not the final snapshot)
+     */
+    private static EvolutionListener bestConflicts(List<Integer> conflicts) {
+        return snapshot -> {
+            if (!snapshot.isFinished()) {
+                conflicts.add(snapshot.getBestConflicts());
+            }
+        };
+    }
+}
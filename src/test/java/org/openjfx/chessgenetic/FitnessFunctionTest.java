@@ -0,0 +1,134 @@
+package org.openjfx.chessgenetic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the bitboard scoring against the char board scoring of the first version of ChessMatrix,
+ * and the incremental swap rescoring against a full rescore.
+ */
+class FitnessFunctionTest {
+    private static final int HALF = Attacks.SQUARES / 2; // The squares of each colour
+    private static final int BOARDS = 2000;
+
+    @Test
+    void conflictsMatchTheBaselineScoring() {
+        SplittableRandom random = new SplittableRandom(1);
+        FitnessFunction perBoard = new FitnessFunction(FitnessFunction.PenaltyMode.PER_BOARD);
+        for (int i = 0; i < BOARDS; i++) {
+            ChessMatrix board = new ChessMatrix(FitnessFunction.DEFAULT, random);
+            char[][] chars = toChars(board.getGenome());
+            int attacks = BaselineScoring.attacks(chars);
+            int penalty = BaselineScoring.penalty(chars);
+
+            // The baseline adds the whole penalty once per piece
+            assertEquals(attacks + 10 * penalty, board.getConflicts(), "PER_PIECE, board " + i);
+            assertEquals(attacks + penalty, new ChessMatrix(board.getGenome(), perBoard).getConflicts(), "PER_BOARD, board " + i);
+            assertEquals(board.getConflicts(), FitnessFunction.DEFAULT.conflicts(board.getGenome(), 0), "genome, board " + i);
+        }
+    }
+
+    @Test
+    void swapDeltaMatchesAFullRescore() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (FitnessFunction.PenaltyMode mode : FitnessFunction.PenaltyMode.values()) {
+            FitnessFunction fitnessFunction = new FitnessFunction(mode);
+            for (int i = 0; i < BOARDS; i++) {
+                ChessMatrix board = new ChessMatrix(fitnessFunction, random);
+                for (int swap = 0; swap < 10; swap++) {
+                    int half = random.nextBoolean() ? 0 : HALF;
+                    board.swapAndRescore(half + random.nextInt(HALF), half + random.nextInt(HALF));
+                    int rescored = new ChessMatrix(board.getGenome(), fitnessFunction).getConflicts();
+                    assertEquals(rescored, board.getConflicts(), mode + ", board " + i + ", swap " + swap);
+                }
+            }
+        }
+    }
+
+    private static char[][] toChars(byte[] genome) {
+        char[][] chars = new char[8][8];
+        for (int square = 0; square < genome.length; square++) {
+            chars[square / 8][square % 8] = Pieces.toChar(genome[square]);
+        }
+        return chars;
+    }
+
+    /**
+     * The scoring of the first ChessMatrix, on a char board ('e' for an empty square, 'K' for a knight):
+     * every piece counts the first piece it meets in each of its directions (and its knight squares),
+     * plus the queen and rook row and column penalty, once per piece
+     */
+    private static final class BaselineScoring {
+        private static final int[][] DIAGONAL = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+        private static final int[][] STRAIGHT = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        private static final int[][] KNIGHT = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+        static int attacks(char[][] board) {
+            int conflicts = 0;
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    switch (Character.toUpperCase(board[row][col])) {
+                        case 'Q' -> conflicts += lines(board, row, col, DIAGONAL) + lines(board, row, col, STRAIGHT);
+                        case 'R' -> conflicts += lines(board, row, col, STRAIGHT);
+                        case 'B' -> conflicts += lines(board, row, col, DIAGONAL);
+                        case 'K' -> conflicts += knight(board, row, col);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            return conflicts;
+        }
+
+        static int penalty(char[][] board) {
+            return linePenalty(board, 'Q', true) + linePenalty(board, 'Q', false)
+                    + linePenalty(board, 'R', true) + linePenalty(board, 'R', false);
+        }
+
+        private static int lines(char[][] board, int row, int col, int[][] directions) {
+            int conflicts = 0;
+            for (int[] direction : directions) {
+                int r = row + direction[0];
+                int c = col + direction[1];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    if (board[r][c] != 'e') {
+                        conflicts++;
+                        break;
+                    }
+                    r += direction[0];
+                    c += direction[1];
+                }
+            }
+            return conflicts;
+        }
+
+        private static int knight(char[][] board, int row, int col) {
+            int conflicts = 0;
+            for (int[] move : KNIGHT) {
+                int r = row + move[0];
+                int c = col + move[1];
+                if (r >= 0 && r < 8 && c >= 0 && c < 8 && board[r][c] != 'e') {
+                    conflicts++;
+                }
+            }
+            return conflicts;
+        }
+
+        private static int linePenalty(char[][] board, char piece, boolean rows) {
+            int penalty = 0;
+            for (int line = 0; line < 8; line++) {
+                int count = 0;
+                for (int i = 0; i < 8; i++) {
+                    if (Character.toUpperCase(rows ? board[line][i] : board[i][line]) == piece) {
+                        count++;
+                    }
+                }
+                penalty += Math.max(0, count - 1);
+            }
+            return penalty;
+        }
+    }
+}